@@ -0,0 +1,102 @@
+package strategy;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import model.Money;
+
+import java.math.RoundingMode;
+
+/**
+ * SIMD implementation of {@link InterestKernel} on the incubating Vector API.
+ * Needs {@code --add-modules jdk.incubator.vector}; loaded reflectively by
+ * {@link InterestKernel#best()}.
+ * <p>
+ * Lanes have no integer division, so the quotient by 10000 is estimated in
+ * double precision and then corrected with integer arithmetic until the
+ * remainder lies in [0, 10000); rounding to even is applied with lane masks.
+ * The result is exact. Lanes whose product could overflow are recomputed one
+ * at a time with {@link Money#applyBasisPoints}, which reports the overflow.
+ */
+final class VectorInterestKernel implements InterestKernel {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final long DIVISOR = 10_000;
+    private static final long HALF = DIVISOR / 2;
+    // |balance| < 2^40 and |rate| < 2^22 keep the product below 2^62
+    private static final long MAX_BALANCE = 1L << 40;
+    private static final long MAX_RATE = 1L << 22;
+
+    private final ScalarInterestKernel scalar = new ScalarInterestKernel();
+
+    @Override
+    public void interest(long[] balances, long rateBasisPoints, long[] out, int length) {
+        if (Math.abs(rateBasisPoints) >= MAX_RATE) {
+            scalar.interest(balances, rateBasisPoints, out, length);
+            return;
+        }
+        LongVector rate = LongVector.broadcast(LONGS, rateBasisPoints);
+        int bound = LONGS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            LongVector balance = LongVector.fromArray(LONGS, balances, i);
+            if (balance.abs().compare(VectorOperators.GE, MAX_BALANCE).anyTrue()) {
+                for (int k = i; k < i + LONGS.length(); k++) {
+                    out[k] = single(balances[k], rateBasisPoints);
+                }
+                continue;
+            }
+            divideHalfEven(balance.mul(rate)).intoArray(out, i);
+        }
+        for (; i < length; i++) {
+            out[i] = single(balances[i], rateBasisPoints);
+        }
+    }
+
+    @Override
+    public void interest(long[] balances, long[] ratesBasisPoints, long[] out, int length) {
+        int bound = LONGS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            LongVector balance = LongVector.fromArray(LONGS, balances, i);
+            LongVector rate = LongVector.fromArray(LONGS, ratesBasisPoints, i);
+            if (balance.abs().compare(VectorOperators.GE, MAX_BALANCE)
+                    .or(rate.abs().compare(VectorOperators.GE, MAX_RATE)).anyTrue()) {
+                for (int k = i; k < i + LONGS.length(); k++) {
+                    out[k] = single(balances[k], ratesBasisPoints[k]);
+                }
+                continue;
+            }
+            divideHalfEven(balance.mul(rate)).intoArray(out, i);
+        }
+        for (; i < length; i++) {
+            out[i] = single(balances[i], ratesBasisPoints[i]);
+        }
+    }
+
+    /**
+     * Exact {@code product / 10000} rounded HALF_EVEN, for |product| < 2^62.
+     */
+    private static LongVector divideHalfEven(LongVector product) {
+        DoubleVector estimate = (DoubleVector) product.convert(VectorOperators.L2D, 0);
+        LongVector quotient = (LongVector) estimate.div(DIVISOR).convert(VectorOperators.D2L, 0);
+        LongVector remainder = product.sub(quotient.mul(DIVISOR));
+        // the estimate is off by at most one in either direction; move to floor division
+        VectorMask<Long> low = remainder.compare(VectorOperators.LT, 0);
+        quotient = quotient.sub(1, low);
+        remainder = remainder.add(DIVISOR, low);
+        VectorMask<Long> high = remainder.compare(VectorOperators.GE, DIVISOR);
+        quotient = quotient.add(1, high);
+        remainder = remainder.sub(DIVISOR, high);
+        // value = quotient + remainder / 10000 with remainder in [0, 10000)
+        VectorMask<Long> above = remainder.compare(VectorOperators.GT, HALF);
+        VectorMask<Long> tieToOdd = remainder.compare(VectorOperators.EQ, HALF)
+                .and(quotient.and(1L).compare(VectorOperators.NE, 0));
+        return quotient.add(1, above.or(tieToOdd));
+    }
+
+    private static long single(long balance, long rate) {
+        return Money.applyBasisPoints(balance, rate, RoundingMode.HALF_EVEN);
+    }
+}
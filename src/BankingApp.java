@@ -58,7 +58,7 @@ public class BankingApp {
      */
     private static Client createClient1() {
         printSection("СОЗДАНИЕ КЛИЕНТА #1");
-        Client client = new Client("Сабулла", "Диана", "diana@bank.kz", "+77009890450");
+        Client client = Client.create("Сабулла", "Диана", "diana@bank.kz", "+77009890450");
         client.showClientInfo();
         return client;
     }
@@ -68,7 +68,7 @@ public class BankingApp {
      */
     private static Client createClient2() {
         printSection("СОЗДАНИЕ КЛИЕНТА #2");
-        Client client = new Client("Иванов", "Иван", "ivan@bank.kz", "+77001234567");
+        Client client = Client.create("Иванов", "Иван", "ivan@bank.kz", "+77001234567");
         client.showClientInfo();
         return client;
     }
@@ -136,12 +136,12 @@ public class BankingApp {
 
         // Операции со счетами
         System.out.println("\n→ Выполнение операций со счетами:");
-        savings1.deposit(150000);
-        deposit1.deposit(500000);
-        savings2.deposit(200000);
+        savings1.deposit(Money.ofTenge(150000));
+        deposit1.deposit(Money.ofTenge(500000));
+        savings2.deposit(Money.ofTenge(200000));
 
         System.out.println("\n→ Операции с бонусами (pay):");
-        savings1.pay(10000); // Будет применен бонус от декоратора
+        savings1.pay(Money.ofTenge(10000)); // Будет применен бонус от декоратора
 
         client1.showAccounts();
         client2.showAccounts();
@@ -163,23 +163,23 @@ public class BankingApp {
         // Стратегия 1: SavingsInterest (3%)
         System.out.println("→ Стратегия 1: SavingsInterest (3% годовых)");
         calculator.setStrategy(new SavingsInterest());
-        double interest1 = calculator.execute(accounts[0]);
-        System.out.printf("  Проценты для счета [%s]: %.2f ₸%n",
-            accounts[0].getAccountType(), interest1);
+        long interest1 = calculator.execute(accounts[0]);
+        System.out.printf("  Проценты для счета [%s]: %s ₸%n",
+            accounts[0].getAccountType(), Money.format(interest1));
 
         // Стратегия 2: VIPInterest (5%)
         System.out.println("\n→ Стратегия 2: VIPInterest (5% годовых)");
         calculator.setStrategy(new VIPInterest());
-        double interest2 = calculator.execute(accounts[1]);
-        System.out.printf("  Проценты для счета [%s]: %.2f ₸%n",
-            accounts[1].getAccountType(), interest2);
+        long interest2 = calculator.execute(accounts[1]);
+        System.out.printf("  Проценты для счета [%s]: %s ₸%n",
+            accounts[1].getAccountType(), Money.format(interest2));
 
         // Стратегия 3: LoanInterest (7%)
         System.out.println("\n→ Стратегия 3: LoanInterest (7% годовых)");
         calculator.setStrategy(new LoanInterest());
-        double interest3 = calculator.execute(accounts[2]);
-        System.out.printf("  Проценты для счета [%s]: %.2f ₸%n",
-            accounts[2].getAccountType(), interest3);
+        long interest3 = calculator.execute(accounts[2]);
+        System.out.printf("  Проценты для счета [%s]: %s ₸%n",
+            accounts[2].getAccountType(), Money.format(interest3));
 
         System.out.println("\n✓ Динамическая смена стратегий расчета успешна!\n");
     }
@@ -232,7 +232,7 @@ public class BankingApp {
         System.out.println("→ Прямое использование Builder:");
         LoanAgreement simpleLoan = new LoanAgreementBuilder()
                 .setClient(client1)
-                .setAmount(600_000)
+                .setAmount(Money.ofTenge(600_000))
                 .setInterestRate(7.5)
                 .setTermMonths(60)
                 .setPurpose("Личный кредит")
@@ -243,7 +243,7 @@ public class BankingApp {
         System.out.println("\n→ Сложный кредит с дополнительными параметрами:");
         LoanAgreement complexLoan = new LoanAgreementBuilder()
                 .setClient(client2)
-                .setAmount(2_500_000)
+                .setAmount(Money.ofTenge(2_500_000))
                 .setInterestRate(6.5)
                 .setTermMonths(180)
                 .setPurpose("Покупка недвижимости")
@@ -257,11 +257,11 @@ public class BankingApp {
         LoanBuilder builder = new LoanAgreementBuilder();
         LoanAgreementDirector director = new LoanAgreementDirector(builder);
 
-        LoanAgreement mortgageLoan = director.constructMortgageLoan(client1, 3_000_000);
+        LoanAgreement mortgageLoan = director.constructMortgageLoan(client1, Money.ofTenge(3_000_000));
         System.out.println("\n  [Director] Ипотечный кредит:");
         mortgageLoan.displayAgreementInfo();
 
-        LoanAgreement carLoan = director.constructCarLoan(client2, 1_200_000);
+        LoanAgreement carLoan = director.constructCarLoan(client2, Money.ofTenge(1_200_000));
         System.out.println("\n  [Director] Автокредит:");
         carLoan.displayAgreementInfo();
 
@@ -285,11 +285,12 @@ public class BankingApp {
 
         // 2. Перевод между счетами
         System.out.println("→ Перевод между счетами через Facade:");
-        facade.transfer(accounts[0], accounts[1], 30000);
+        TransferResult transfer = facade.transfer(accounts[0], accounts[1], Money.ofTenge(30000));
+        System.out.println(transfer + "\n");
 
         // 3. Создание кредита
         System.out.println("→ Создание кредита через Facade:");
-        LoanAgreement newLoan = facade.createLoan(client, 750_000);
+        LoanAgreement newLoan = facade.createLoan(client, Money.ofTenge(750_000));
         newLoan.displayAgreementInfo();
 
         // 4. Генерация отчета
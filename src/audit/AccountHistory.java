@@ -0,0 +1,82 @@
+package audit;
+
+/**
+ * Recent money movements of one account, oldest first, kept in a ring of
+ * primitive arrays. Amounts are signed: positive into the account, negative
+ * out of it. Only movements inside the scanner's window are kept, and at
+ * most a fixed number of them, so a very busy account cannot grow without bound.
+ */
+public final class AccountHistory {
+    private final int maxEvents;
+    private long[] timestamps = new long[8];
+    private long[] amounts = new long[8];
+    private int head;
+    private int size;
+
+    AccountHistory(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index 0 for the oldest kept movement
+     */
+    public long timestamp(int index) {
+        return timestamps[(head + index) & (timestamps.length - 1)];
+    }
+
+    /**
+     * @param index 0 for the oldest kept movement
+     * @return signed amount in tiyn
+     */
+    public long amount(int index) {
+        return amounts[(head + index) & (amounts.length - 1)];
+    }
+
+    /**
+     * @return the time of the newest movement, or {@link Long#MIN_VALUE} if empty
+     */
+    long newest() {
+        return size == 0 ? Long.MIN_VALUE : timestamp(size - 1);
+    }
+
+    void add(long timestamp, long signedAmount) {
+        if (size == timestamps.length) {
+            if (size >= maxEvents) {
+                head = (head + 1) & (timestamps.length - 1);
+                size--;
+            } else {
+                grow();
+            }
+        }
+        int at = (head + size) & (timestamps.length - 1);
+        timestamps[at] = timestamp;
+        amounts[at] = signedAmount;
+        size++;
+    }
+
+    /**
+     * Drops movements older than {@code cutoff}.
+     */
+    void evictBefore(long cutoff) {
+        while (size > 0 && timestamps[head] < cutoff) {
+            head = (head + 1) & (timestamps.length - 1);
+            size--;
+        }
+    }
+
+    private void grow() {
+        long[] newTimestamps = new long[timestamps.length * 2];
+        long[] newAmounts = new long[amounts.length * 2];
+        for (int i = 0; i < size; i++) {
+            newTimestamps[i] = timestamp(i);
+            newAmounts[i] = amount(i);
+        }
+        timestamps = newTimestamps;
+        amounts = newAmounts;
+        head = 0;
+    }
+}
@@ -0,0 +1,63 @@
+package audit;
+
+import model.Money;
+import persistence.JournalOp;
+
+import java.time.Instant;
+
+/**
+ * One movement flagged by a rule.
+ */
+public final class AuditFlag {
+    private final String rule;
+    private final int accountId;
+    private final JournalOp op;
+    private final long signedAmount;
+    private final long timestampMillis;
+    private final long lsn;
+
+    AuditFlag(String rule, int accountId, JournalOp op, long signedAmount, long timestampMillis, long lsn) {
+        this.rule = rule;
+        this.accountId = accountId;
+        this.op = op;
+        this.signedAmount = signedAmount;
+        this.timestampMillis = timestampMillis;
+        this.lsn = lsn;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public JournalOp getOp() {
+        return op;
+    }
+
+    /**
+     * @return amount in tiyn, positive into the account, negative out of it
+     */
+    public long getSignedAmount() {
+        return signedAmount;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * @return journal position of the record, to look it up again
+     */
+    public long getLsn() {
+        return lsn;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s account %d %s %s ₸ — %s", Instant.ofEpochMilli(timestampMillis), accountId,
+                op, Money.format(signedAmount), rule);
+    }
+}
@@ -0,0 +1,106 @@
+package audit;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one audit scan.
+ */
+public final class AuditResult {
+    private final long fromMillis;
+    private final long toMillis;
+    private final long coveredFromMillis;
+    private final long recordsScanned;
+    private final long movements;
+    private final long accountsReviewed;
+    private final long flaggedMovements;
+    private final Map<String, Long> flagsByRule;
+    private final List<AuditFlag> flags;
+    private final long elapsedNanos;
+
+    AuditResult(long fromMillis, long toMillis, long coveredFromMillis, long recordsScanned, long movements,
+                long accountsReviewed, long flaggedMovements, Map<String, Long> flagsByRule, List<AuditFlag> flags,
+                long elapsedNanos) {
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.coveredFromMillis = coveredFromMillis;
+        this.recordsScanned = recordsScanned;
+        this.movements = movements;
+        this.accountsReviewed = accountsReviewed;
+        this.flaggedMovements = flaggedMovements;
+        this.flagsByRule = flagsByRule;
+        this.flags = flags;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getFromMillis() {
+        return fromMillis;
+    }
+
+    public long getToMillis() {
+        return toMillis;
+    }
+
+    /**
+     * @return where the audited journal starts within the period: the period
+     *         start if the journal reaches back that far, otherwise the oldest
+     *         record still on disk
+     */
+    public long getCoveredFromMillis() {
+        return coveredFromMillis;
+    }
+
+    /**
+     * @return whether the whole period was audited, i.e. no journal it needs
+     *         was deleted by a snapshot checkpoint
+     */
+    public boolean isComplete() {
+        return coveredFromMillis <= fromMillis;
+    }
+
+    /**
+     * @return journal records read, of any kind and time
+     */
+    public long getRecordsScanned() {
+        return recordsScanned;
+    }
+
+    /**
+     * @return movements in the period checked against the rules; a transfer is two
+     */
+    public long getMovements() {
+        return movements;
+    }
+
+    /**
+     * @return distinct accounts with at least one movement in the period
+     */
+    public long getAccountsReviewed() {
+        return accountsReviewed;
+    }
+
+    /**
+     * @return movements flagged by at least one rule
+     */
+    public long getFlaggedMovements() {
+        return flaggedMovements;
+    }
+
+    /**
+     * @return flag count per rule name, in rule order
+     */
+    public Map<String, Long> getFlagsByRule() {
+        return flagsByRule;
+    }
+
+    /**
+     * @return flagged movements in journal order, at most the scanner's limit
+     */
+    public List<AuditFlag> getFlags() {
+        return flags;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
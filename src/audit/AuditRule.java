@@ -0,0 +1,31 @@
+package audit;
+
+import java.time.Duration;
+
+/**
+ * One anti-money-laundering check, applied to every movement of money in or
+ * out of an account together with that account's recent history.
+ * <p>
+ * Rules are called from scanner worker threads, each account always from the
+ * same thread; implementations must not keep per-account state of their own.
+ */
+public interface AuditRule {
+    /**
+     * @return a short name used in reports
+     */
+    String name();
+
+    /**
+     * @return how far back the rule looks; the scanner keeps at least this much history
+     */
+    Duration window();
+
+    /**
+     * @param history      earlier movements of the account within the scanner's window,
+     *                     not including this one
+     * @param timestamp    time of this movement, epoch millis
+     * @param signedAmount amount in tiyn, positive into the account, negative out of it
+     * @return true to flag the movement
+     */
+    boolean check(AccountHistory history, long timestamp, long signedAmount);
+}
@@ -0,0 +1,431 @@
+package audit;
+
+import model.Money;
+import persistence.JournalOp;
+import persistence.TransactionJournal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Audits the transaction journal against a set of {@link AuditRule}s.
+ * <p>
+ * Segments are decoded in parallel, a few ahead of the one being checked,
+ * into reusable primitive columns, and the decoder buckets each record's index
+ * by account partition. Each decoded segment is then checked by K partition
+ * tasks in parallel: partition {@code p} handles the accounts with
+ * {@code accountId % K == p}, visits only its bucket and owns their histories,
+ * so no state is shared between threads and a segment costs O(N) in total
+ * rather than O(K·N). Segments are checked in journal order, which keeps
+ * every account's movements in order.
+ * <p>
+ * Memory is bounded by the read-ahead and the rule windows, not by the length
+ * of the history: each account keeps only the movements inside the longest
+ * window, and accounts idle for longer than that are dropped. Only the journal
+ * still on disk is audited; segments deleted by a snapshot checkpoint are gone,
+ * and the result reports from when its coverage actually starts.
+ */
+public class AuditScanner {
+    private static final JournalOp[] OPS = JournalOp.values();
+    private static final int MAX_EVENTS_PER_ACCOUNT = 4096;
+    private static final int DEFAULT_MAX_FLAGS = 10_000;
+
+    private final List<AuditRule> rules;
+    private final long windowMillis;
+    private final int partitionCount;
+    private final int maxFlags;
+    private final ForkJoinPool pool;
+
+    /**
+     * Uses {@link #defaultRules()} on the common pool.
+     */
+    public AuditScanner() {
+        this(defaultRules(), ForkJoinPool.commonPool().getParallelism() * 2, DEFAULT_MAX_FLAGS,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param partitions number of account partitions checked in parallel
+     * @param maxFlags   how many flagged movements are kept in the result; all are counted
+     */
+    public AuditScanner(List<AuditRule> rules, int partitions, int maxFlags, ForkJoinPool pool) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partitions must be positive: " + partitions);
+        }
+        this.rules = List.copyOf(rules);
+        this.windowMillis = rules.stream().map(AuditRule::window).max(Comparator.naturalOrder())
+                .orElse(Duration.ZERO).toMillis();
+        this.partitionCount = partitions;
+        this.maxFlags = maxFlags;
+        this.pool = pool;
+    }
+
+    /**
+     * Large amounts from 7,000,000 ₸; three or more amounts within 10% below
+     * that in 24 hours; 90% of at least 1,000,000 ₸ received passed on within 24 hours.
+     */
+    public static List<AuditRule> defaultRules() {
+        long reporting = Money.ofTenge(7_000_000);
+        return List.of(
+                new LargeAmountRule(reporting),
+                new StructuringRule(reporting, 10, 3, Duration.ofHours(24)),
+                new RapidInOutRule(Duration.ofHours(24), 90, Money.ofTenge(1_000_000)));
+    }
+
+    /**
+     * Audits the movements recorded in {@code [fromMillis, toMillis)}.
+     */
+    public AuditResult scan(TransactionJournal journal, long fromMillis, long toMillis) throws IOException {
+        long begin = System.nanoTime();
+        List<Long> bases = journal.segmentBases();
+        Partition[] partitions = new Partition[partitionCount];
+        for (int p = 0; p < partitionCount; p++) {
+            partitions[p] = new Partition(p);
+        }
+
+        int readAhead = Math.max(2, pool.getParallelism());
+        ArrayDeque<Batch> free = new ArrayDeque<>();
+        for (int i = 0; i < readAhead; i++) {
+            free.add(new Batch(partitionCount));
+        }
+        ArrayDeque<CompletableFuture<Batch>> pending = new ArrayDeque<>();
+        long records = 0;
+        long oldestMillis = Long.MAX_VALUE;
+        int next = 0;
+        while (next < bases.size() || !pending.isEmpty()) {
+            while (next < bases.size() && !free.isEmpty()) {
+                long base = bases.get(next++);
+                Batch batch = free.poll();
+                pending.add(CompletableFuture.supplyAsync(() -> batch.decode(journal, base), pool));
+            }
+            Batch batch = join(pending.poll());
+            records += batch.records;
+            oldestMillis = Math.min(oldestMillis, batch.oldestMillis);
+            pool.submit(() -> IntStream.range(0, partitionCount).parallel()
+                    .forEach(p -> partitions[p].check(batch, fromMillis, toMillis))).join();
+            free.add(batch);
+        }
+        // a journal that still starts at position 0 holds the whole history
+        long coveredFrom = !bases.isEmpty() && bases.get(0) == 0
+                ? fromMillis : Math.min(Math.max(fromMillis, oldestMillis), toMillis);
+        return merge(partitions, fromMillis, toMillis, coveredFrom, records, System.nanoTime() - begin);
+    }
+
+    private static Batch join(CompletableFuture<Batch> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private AuditResult merge(Partition[] partitions, long fromMillis, long toMillis, long coveredFromMillis,
+                              long records, long elapsed) {
+        long movements = 0;
+        long accounts = 0;
+        long flagged = 0;
+        long[] byRule = new long[rules.size()];
+        List<AuditFlag> flags = new ArrayList<>();
+        for (Partition partition : partitions) {
+            movements += partition.movements;
+            accounts += partition.reviewed.cardinality();
+            flagged += partition.flagged;
+            for (int r = 0; r < byRule.length; r++) {
+                byRule[r] += partition.ruleCounts[r];
+            }
+            flags.addAll(partition.flags);
+        }
+        flags.sort(Comparator.comparingLong(AuditFlag::getLsn));
+        if (flags.size() > maxFlags) {
+            flags = flags.subList(0, maxFlags);
+        }
+        Map<String, Long> flagsByRule = new LinkedHashMap<>();
+        for (int r = 0; r < byRule.length; r++) {
+            flagsByRule.merge(rules.get(r).name(), byRule[r], Long::sum);
+        }
+        return new AuditResult(fromMillis, toMillis, coveredFromMillis, records, movements, accounts, flagged,
+                flagsByRule, List.copyOf(flags), elapsed);
+    }
+
+    /**
+     * Balance records of one segment in column form, with their indices
+     * bucketed by partition. Reused across segments.
+     */
+    private static final class Batch {
+        final int partitionCount;
+        final int[] bucketStarts;
+        byte[] ops = new byte[1 << 16];
+        int[] accountIds = new int[1 << 16];
+        int[] counterpartyIds = new int[1 << 16];
+        long[] amounts = new long[1 << 16];
+        long[] timestamps = new long[1 << 16];
+        long[] lsns = new long[1 << 16];
+        int[] bucketed = new int[1 << 17];
+        int size;
+        long records;
+        long oldestMillis;
+
+        Batch(int partitionCount) {
+            this.partitionCount = partitionCount;
+            this.bucketStarts = new int[partitionCount + 1];
+        }
+
+        Batch decode(TransactionJournal journal, long base) {
+            size = 0;
+            oldestMillis = Long.MAX_VALUE;
+            try {
+                records = journal.replaySegment(base, record -> {
+                    oldestMillis = Math.min(oldestMillis, record.getTimestampMillis());
+                    JournalOp op = record.getOp();
+                    if (op == JournalOp.DEPOSIT || op == JournalOp.WITHDRAW
+                            || op == JournalOp.PAYMENT || op == JournalOp.TRANSFER) {
+                        add(op, record.getAccountId(), record.getCounterpartyId(), record.getAmount(),
+                                record.getTimestampMillis(), record.getLsn());
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            bucket();
+            return this;
+        }
+
+        /**
+         * Counting sort of record indices by the partitions they touch: a
+         * transfer between two partitions goes into both buckets. Indices stay
+         * ascending within a bucket, so each partition sees journal order.
+         */
+        private void bucket() {
+            Arrays.fill(bucketStarts, 0);
+            for (int i = 0; i < size; i++) {
+                int partition = accountIds[i] % partitionCount;
+                bucketStarts[partition + 1]++;
+                int other = counterpartyPartition(i, partition);
+                if (other >= 0) {
+                    bucketStarts[other + 1]++;
+                }
+            }
+            for (int p = 0; p < partitionCount; p++) {
+                bucketStarts[p + 1] += bucketStarts[p];
+            }
+            if (bucketed.length < bucketStarts[partitionCount]) {
+                bucketed = new int[bucketStarts[partitionCount]];
+            }
+            int[] fill = Arrays.copyOf(bucketStarts, partitionCount);
+            for (int i = 0; i < size; i++) {
+                int partition = accountIds[i] % partitionCount;
+                bucketed[fill[partition]++] = i;
+                int other = counterpartyPartition(i, partition);
+                if (other >= 0) {
+                    bucketed[fill[other]++] = i;
+                }
+            }
+        }
+
+        /**
+         * @return the partition of a transfer's receiving account if it differs
+         *         from the sender's, otherwise -1
+         */
+        private int counterpartyPartition(int index, int partition) {
+            if (ops[index] != JournalOp.TRANSFER.ordinal()) {
+                return -1;
+            }
+            int other = counterpartyIds[index] % partitionCount;
+            return other != partition ? other : -1;
+        }
+
+        private void add(JournalOp op, int accountId, int counterpartyId, long amount, long timestamp, long lsn) {
+            if (size == ops.length) {
+                int capacity = size * 2;
+                ops = Arrays.copyOf(ops, capacity);
+                accountIds = Arrays.copyOf(accountIds, capacity);
+                counterpartyIds = Arrays.copyOf(counterpartyIds, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                lsns = Arrays.copyOf(lsns, capacity);
+            }
+            ops[size] = (byte) op.ordinal();
+            accountIds[size] = accountId;
+            counterpartyIds[size] = counterpartyId;
+            amounts[size] = amount;
+            timestamps[size] = timestamp;
+            lsns[size] = lsn;
+            size++;
+        }
+    }
+
+    /**
+     * Histories and results for the accounts of one partition. Only ever used
+     * by one thread at a time.
+     */
+    private final class Partition {
+        final int index;
+        final HistoryTable histories = new HistoryTable(1 << 10);
+        final AccountHistory noHistory = new AccountHistory(MAX_EVENTS_PER_ACCOUNT);
+        final BitSet reviewed = new BitSet();
+        final long[] ruleCounts = new long[rules.size()];
+        final List<AuditFlag> flags = new ArrayList<>();
+        long movements;
+        long flagged;
+        long lastSweep;
+
+        Partition(int index) {
+            this.index = index;
+        }
+
+        void check(Batch batch, long fromMillis, long toMillis) {
+            for (int b = batch.bucketStarts[index]; b < batch.bucketStarts[index + 1]; b++) {
+                int i = batch.bucketed[b];
+                long timestamp = batch.timestamps[i];
+                if (timestamp < fromMillis || timestamp >= toMillis) {
+                    continue;
+                }
+                JournalOp op = OPS[batch.ops[i]];
+                int accountId = batch.accountIds[i];
+                long amount = batch.amounts[i];
+                if (owns(accountId)) {
+                    movement(accountId, op, op == JournalOp.DEPOSIT ? amount : -amount, timestamp, batch.lsns[i]);
+                }
+                if (op == JournalOp.TRANSFER && owns(batch.counterpartyIds[i])) {
+                    movement(batch.counterpartyIds[i], op, amount, timestamp, batch.lsns[i]);
+                }
+            }
+        }
+
+        private boolean owns(int accountId) {
+            return accountId % partitionCount == index;
+        }
+
+        private void movement(int accountId, JournalOp op, long signedAmount, long timestamp, long lsn) {
+            // a zero window keeps no history, so the table and its sweeps are skipped
+            AccountHistory history = noHistory;
+            if (windowMillis > 0) {
+                history = histories.get(accountId);
+                history.evictBefore(timestamp - windowMillis);
+            }
+            boolean hit = false;
+            for (int r = 0; r < ruleCounts.length; r++) {
+                AuditRule rule = rules.get(r);
+                if (rule.check(history, timestamp, signedAmount)) {
+                    ruleCounts[r]++;
+                    hit = true;
+                    if (flags.size() < maxFlags) {
+                        flags.add(new AuditFlag(rule.name(), accountId, op, signedAmount, timestamp, lsn));
+                    }
+                }
+            }
+            if (hit) {
+                flagged++;
+            }
+            if (windowMillis > 0) {
+                history.add(timestamp, signedAmount);
+            }
+            reviewed.set(accountId);
+            movements++;
+            if (windowMillis > 0 && timestamp - lastSweep > windowMillis) {
+                sweep(timestamp);
+            }
+        }
+
+        /**
+         * Drops accounts with no movement inside the window.
+         */
+        private void sweep(long now) {
+            histories.retainNewerThan(now - windowMillis);
+            lastSweep = now;
+        }
+    }
+
+    /**
+     * Open-addressing map from account id to history with linear probing and
+     * primitive keys, so a lookup does not box the id or chase map nodes.
+     * Entries are only removed in bulk, by rebuilding the table.
+     */
+    private static final class HistoryTable {
+        private int[] keys;
+        private AccountHistory[] values;
+        private int size;
+
+        HistoryTable(int capacity) {
+            keys = new int[capacity];
+            values = new AccountHistory[capacity];
+        }
+
+        /**
+         * Returns the account's history, creating an empty one if needed.
+         */
+        AccountHistory get(int accountId) {
+            int mask = keys.length - 1;
+            int slot = mix(accountId) & mask;
+            while (values[slot] != null) {
+                if (keys[slot] == accountId) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            AccountHistory history = new AccountHistory(MAX_EVENTS_PER_ACCOUNT);
+            keys[slot] = accountId;
+            values[slot] = history;
+            if (++size * 2 > keys.length) {
+                rebuild(keys.length * 2, Long.MIN_VALUE);
+            }
+            return history;
+        }
+
+        /**
+         * Drops every history whose newest movement is older than {@code cutoff}.
+         */
+        void retainNewerThan(long cutoff) {
+            int live = 0;
+            for (AccountHistory history : values) {
+                if (history != null && history.newest() >= cutoff) {
+                    live++;
+                }
+            }
+            int capacity = Math.max(1 << 10, Integer.highestOneBit(Math.max(1, live * 2)) << 1);
+            rebuild(capacity, cutoff);
+        }
+
+        private void rebuild(int capacity, long cutoff) {
+            int[] oldKeys = keys;
+            AccountHistory[] oldValues = values;
+            keys = new int[capacity];
+            values = new AccountHistory[capacity];
+            size = 0;
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                AccountHistory history = oldValues[i];
+                if (history == null || history.newest() < cutoff) {
+                    continue;
+                }
+                int slot = mix(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = history;
+                size++;
+            }
+        }
+
+        private static int mix(int key) {
+            return key * 0x9E3779B9 ^ (key * 0x9E3779B9 >>> 16);
+        }
+    }
+}
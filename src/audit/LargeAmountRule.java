@@ -0,0 +1,34 @@
+package audit;
+
+import model.Money;
+
+import java.time.Duration;
+
+/**
+ * Flags any single movement at or above a reporting threshold.
+ */
+public class LargeAmountRule implements AuditRule {
+    private final long threshold;
+
+    /**
+     * @param threshold amount in tiyn
+     */
+    public LargeAmountRule(long threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public String name() {
+        return "Large amount (>= " + Money.format(threshold) + " ₸)";
+    }
+
+    @Override
+    public Duration window() {
+        return Duration.ZERO;
+    }
+
+    @Override
+    public boolean check(AccountHistory history, long timestamp, long signedAmount) {
+        return Math.abs(signedAmount) >= threshold;
+    }
+}
@@ -0,0 +1,51 @@
+package audit;
+
+import model.Money;
+
+import java.time.Duration;
+
+/**
+ * Flags pass-through accounts: money that leaves shortly after it arrived.
+ * An outflow is flagged when the account received at least {@code minAmount}
+ * within the window and the outflow moves at least {@code percent} of it on.
+ */
+public class RapidInOutRule implements AuditRule {
+    private final Duration window;
+    private final int percent;
+    private final long minAmount;
+
+    /**
+     * @param minAmount smallest inflow in tiyn worth checking
+     */
+    public RapidInOutRule(Duration window, int percent, long minAmount) {
+        this.window = window;
+        this.percent = percent;
+        this.minAmount = minAmount;
+    }
+
+    @Override
+    public String name() {
+        return "Rapid in/out (" + percent + "% within " + window.toMinutes() + " min, from "
+                + Money.format(minAmount) + " ₸)";
+    }
+
+    @Override
+    public Duration window() {
+        return window;
+    }
+
+    @Override
+    public boolean check(AccountHistory history, long timestamp, long signedAmount) {
+        if (signedAmount >= 0) {
+            return false;
+        }
+        long cutoff = timestamp - window.toMillis();
+        long inflow = 0;
+        for (int i = history.size() - 1; i >= 0 && history.timestamp(i) >= cutoff; i--) {
+            if (history.amount(i) > 0) {
+                inflow += history.amount(i);
+            }
+        }
+        return inflow >= minAmount && -signedAmount * 100 >= inflow * percent;
+    }
+}
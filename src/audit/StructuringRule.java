@@ -0,0 +1,59 @@
+package audit;
+
+import model.Money;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+
+/**
+ * Flags structuring: several movements just below a reporting threshold
+ * within a short window, as if a large amount had been split to stay under it.
+ */
+public class StructuringRule implements AuditRule {
+    private final long threshold;
+    private final long bandFloor;
+    private final int minCount;
+    private final Duration window;
+
+    /**
+     * @param threshold     reporting threshold in tiyn
+     * @param marginPercent how far below the threshold still counts as "just below"
+     * @param minCount      number of such movements in the window, this one included, that triggers the rule
+     */
+    public StructuringRule(long threshold, int marginPercent, int minCount, Duration window) {
+        this.threshold = threshold;
+        this.bandFloor = threshold - Money.percent(threshold, marginPercent, RoundingMode.DOWN);
+        this.minCount = minCount;
+        this.window = window;
+    }
+
+    @Override
+    public String name() {
+        return "Structuring below " + Money.format(threshold) + " ₸";
+    }
+
+    @Override
+    public Duration window() {
+        return window;
+    }
+
+    @Override
+    public boolean check(AccountHistory history, long timestamp, long signedAmount) {
+        if (!inBand(signedAmount)) {
+            return false;
+        }
+        long cutoff = timestamp - window.toMillis();
+        int count = 1;
+        for (int i = history.size() - 1; i >= 0 && history.timestamp(i) >= cutoff; i--) {
+            if (inBand(history.amount(i)) && ++count >= minCount) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean inBand(long signedAmount) {
+        long amount = Math.abs(signedAmount);
+        return amount >= bandFloor && amount < threshold;
+    }
+}
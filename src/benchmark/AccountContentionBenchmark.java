@@ -0,0 +1,82 @@
+package benchmark;
+
+import model.Account;
+import model.AccountType;
+import model.Client;
+import model.Money;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention benchmark for balance mutations under the store's striped locks.
+ * Runs deposit/withdraw pairs from a growing number of threads, either all
+ * against one hot account, so every thread queues on the same stripe, or
+ * against one account per thread, so threads mostly take different stripes,
+ * and prints the resulting throughput.
+ * <p>
+ * Usage: {@code java benchmark.AccountContentionBenchmark [secondsPerRun]}
+ */
+public class AccountContentionBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        long runMillis = (args.length > 0 ? Long.parseLong(args[0]) : 2) * 1000;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        Client client = Client.create("Bench", "Client", "bench@bank.kz", "+70000000000");
+
+        System.out.printf("%-8s %-8s %16s%n", "layout", "threads", "ops/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            report("hot", threads, run(client, threads, runMillis, true));
+            report("spread", threads, run(client, threads, runMillis, false));
+        }
+    }
+
+    private static double run(Client client, int threads, long runMillis, boolean shared)
+            throws InterruptedException {
+        Account hot = newAccount(client);
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long deadline = System.nanoTime() + runMillis * 1_000_000;
+
+        for (int i = 0; i < threads; i++) {
+            Account account = shared ? hot : newAccount(client);
+            workers[i] = new Thread(() -> {
+                awaitQuietly(start);
+                long done = 0;
+                while (System.nanoTime() < deadline) {
+                    account.deposit(1000);
+                    account.withdraw(1000);
+                    done += 2;
+                }
+                ops.add(done);
+            });
+            workers[i].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return ops.sum() / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    private static Account newAccount(Client client) {
+        Account account = new Account(client, AccountType.SAVINGS, "Benchmark");
+        account.deposit(Money.ofTenge(1_000_000));
+        return account;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void report(String layout, int threads, double opsPerSecond) {
+        System.out.printf("%-8s %-8d %,16.0f%n", layout, threads, opsPerSecond);
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import model.AccountStore;
+import model.AccountType;
+import model.Client;
+import observer.BankSystem;
+
+import java.lang.ref.Reference;
+
+/**
+ * Memory-footprint benchmark comparing the old one-object-per-account layout
+ * with the columnar {@link AccountStore}.
+ * Prints retained heap per account for each layout.
+ * <p>
+ * Usage: {@code java benchmark.AccountFootprintBenchmark [accounts]}
+ */
+public class AccountFootprintBenchmark {
+
+    /**
+     * Field-for-field copy of the original heap-object account layout.
+     */
+    @SuppressWarnings("unused")
+    private static final class HeapAccount {
+        int accountId;
+        String clientName;
+        AccountType accountType;
+        String accountName;
+        double balance;
+        double bonus;
+        Client client;
+        BankSystem bank;
+    }
+
+    public static void main(String[] args) {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Client owner = Client.create("Bench", "Client", "bench@bank.kz", "+70000000000");
+        BankSystem bank = BankSystem.getInstance();
+        AccountType[] types = AccountType.values();
+
+        long before = usedHeap();
+        HeapAccount[] heap = new HeapAccount[accounts];
+        for (int i = 0; i < accounts; i++) {
+            HeapAccount account = new HeapAccount();
+            account.accountId = i + 1;
+            account.clientName = new String(owner.getName());
+            account.accountType = types[i % types.length];
+            account.accountName = "Benchmark";
+            account.bonus = 1.0;
+            account.client = owner;
+            account.bank = bank;
+            heap[i] = account;
+        }
+        long heapBytes = usedHeap() - before;
+        Reference.reachabilityFence(heap);
+        report("objects", accounts, heapBytes);
+        heap = null;
+
+        before = usedHeap();
+        AccountStore store = AccountStore.getInstance();
+        for (int i = 0; i < accounts; i++) {
+            store.open(owner, types[i % types.length], "Benchmark");
+        }
+        long columnarBytes = usedHeap() - before;
+        report("columnar", accounts, columnarBytes);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String layout, int accounts, long bytes) {
+        System.out.printf("%-10s %,12d accounts %,16d bytes %8.1f bytes/account%n",
+                layout, accounts, bytes, (double) bytes / accounts);
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import audit.AuditFlag;
+import audit.AuditResult;
+import audit.AuditScanner;
+import model.Money;
+import persistence.JournalOp;
+import persistence.TransactionJournal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Throughput benchmark for the journal audit scan.
+ * Writes a scratch journal of random deposits, withdrawals, payments and
+ * transfers over a pool of accounts, plants one structuring and one
+ * pass-through pattern, then audits it and prints records per second.
+ * <p>
+ * Usage: {@code java benchmark.AuditScanBenchmark [records] [accounts]}
+ */
+public class AuditScanBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        long records = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000;
+        int accounts = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        Path directory = Files.createTempDirectory("audit-bench");
+        try {
+            long start = System.currentTimeMillis();
+            try (TransactionJournal journal = TransactionJournal.open(directory)) {
+                long begin = System.nanoTime();
+                write(journal, records, accounts);
+                System.out.printf("wrote %,d records in %.1f s%n", records, (System.nanoTime() - begin) / 1e9);
+
+                AuditResult result = new AuditScanner().scan(journal, start, System.currentTimeMillis() + 1);
+                double seconds = result.getElapsedNanos() / 1e9;
+                System.out.printf("scanned %,d records (%,d movements, %,d accounts) in %.2f s: %,.0f records/s%n",
+                        result.getRecordsScanned(), result.getMovements(), result.getAccountsReviewed(),
+                        seconds, result.getRecordsScanned() / seconds);
+                System.out.printf("flagged %,d movements%n", result.getFlaggedMovements());
+                for (Map.Entry<String, Long> rule : result.getFlagsByRule().entrySet()) {
+                    System.out.printf("  %-60s %,d%n", rule.getKey(), rule.getValue());
+                }
+                for (AuditFlag flag : result.getFlags()) {
+                    if (flag.getAccountId() > accounts) {
+                        System.out.println("  planted: " + flag);
+                    }
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Random traffic in amounts up to 500,000 ₸, then the planted patterns on
+     * accounts above the random pool.
+     */
+    private static void write(TransactionJournal journal, long records, int accounts) {
+        SplittableRandom random = new SplittableRandom(7);
+        JournalOp[] ops = {JournalOp.DEPOSIT, JournalOp.WITHDRAW, JournalOp.PAYMENT, JournalOp.TRANSFER};
+        long lsn = 0;
+        for (long i = 0; i < records; i++) {
+            JournalOp op = ops[random.nextInt(ops.length)];
+            int account = 1 + random.nextInt(accounts);
+            int counterparty = op == JournalOp.TRANSFER ? 1 + random.nextInt(accounts) : 0;
+            lsn = journal.append(op, 0, account, counterparty, random.nextLong(1, Money.ofTenge(500_000)), 0, null);
+        }
+        int structuring = accounts + 1;
+        int passThrough = accounts + 2;
+        for (int i = 0; i < 3; i++) {
+            journal.append(JournalOp.DEPOSIT, 0, structuring, 0, Money.ofTenge(6_500_000 + i * 100_000), 0, null);
+        }
+        journal.append(JournalOp.DEPOSIT, 0, passThrough, 0, Money.ofTenge(2_000_000), 0, null);
+        lsn = journal.append(JournalOp.TRANSFER, 0, passThrough, structuring, Money.ofTenge(1_950_000), 0, null);
+        journal.awaitDurable(lsn);
+    }
+}
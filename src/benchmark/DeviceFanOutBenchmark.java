@@ -0,0 +1,81 @@
+package benchmark;
+
+import observer.DeliveryBackend;
+import observer.Device;
+import observer.SequentialDelivery;
+import observer.VirtualThreadDelivery;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fan-out benchmark for notification delivery backends.
+ * Every device simulates blocking I/O by parking for a fixed latency; the
+ * benchmark times one notification to 10k, 100k and 1M devices with the
+ * sequential loop and with virtual threads. The sequential loop is measured
+ * on the first {@value #SEQUENTIAL_SAMPLE} devices and extrapolated, since
+ * it needs latency x devices.
+ * <p>
+ * Usage: {@code java benchmark.DeviceFanOutBenchmark [latencyMicros] [notifications]}
+ */
+public class DeviceFanOutBenchmark {
+    private static final int SEQUENTIAL_SAMPLE = 2_000;
+    private static final int[] DEVICE_COUNTS = {10_000, 100_000, 1_000_000};
+
+    public static void main(String[] args) {
+        long latencyNanos = (args.length > 0 ? Long.parseLong(args[0]) : 1_000) * 1_000;
+        int notifications = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        LongAdder delivered = new LongAdder();
+
+        System.out.printf("%-10s %-10s %16s %18s%n", "devices", "backend", "ms/notification", "deliveries/s");
+        for (int count : DEVICE_COUNTS) {
+            List<Device> devices = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                devices.add(new BlockingDevice(latencyNanos, delivered));
+            }
+            List<Device> sample = devices.subList(0, Math.min(count, SEQUENTIAL_SAMPLE));
+            double sampleMillis = run(new SequentialDelivery(), sample, notifications);
+            report(count, "sequential", sampleMillis * count / sample.size(), sample.size() < count);
+            // the deadline only guards against a hang, so every run times the whole fan-out
+            try (VirtualThreadDelivery virtual = new VirtualThreadDelivery(Duration.ofMinutes(5))) {
+                report(count, "virtual", run(virtual, devices, notifications), false);
+            }
+        }
+        System.out.printf("%nTotal deliveries: %,d%n", delivered.sum());
+    }
+
+    private static double run(DeliveryBackend backend, List<Device> devices, int notifications) {
+        long begin = System.nanoTime();
+        for (int i = 0; i < notifications; i++) {
+            backend.broadcast("Benchmark notification " + i, devices);
+        }
+        return (System.nanoTime() - begin) / 1e6 / notifications;
+    }
+
+    private static void report(int devices, String backend, double millisPerNotification, boolean estimated) {
+        System.out.printf("%-10d %-10s %16.1f %18s%s%n", devices, backend, millisPerNotification,
+                String.format("%,.0f", devices / (millisPerNotification / 1000)), estimated ? " (est.)" : "");
+    }
+
+    /**
+     * Device whose update blocks like a network call.
+     */
+    private static final class BlockingDevice implements Device {
+        private final long latencyNanos;
+        private final LongAdder delivered;
+
+        BlockingDevice(long latencyNanos, LongAdder delivered) {
+            this.latencyNanos = latencyNanos;
+            this.delivered = delivered;
+        }
+
+        @Override
+        public void update(String message) {
+            LockSupport.parkNanos(latencyNanos);
+            delivered.increment();
+        }
+    }
+}
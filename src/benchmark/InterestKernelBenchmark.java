@@ -0,0 +1,84 @@
+package benchmark;
+
+import model.Account;
+import model.AccountType;
+import model.Client;
+import model.Money;
+import strategy.InterestCalculator;
+import strategy.InterestKernel;
+import strategy.SavingsInterest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Compares interest computation for one strategy group of accounts:
+ * the per-account {@link InterestCalculator#execute(Account)} loop against
+ * the bulk scalar and best available kernels over a primitive balance array.
+ * Checks that all three give the same amounts.
+ * <p>
+ * Run with {@code --add-modules jdk.incubator.vector} to include the SIMD
+ * kernel; without it "best" is the scalar kernel.
+ * <p>
+ * Usage: {@code java benchmark.InterestKernelBenchmark [accounts] [rounds]}
+ */
+public class InterestKernelBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        Client client = Client.create("Bench", "Client", "bench@bank.kz", "+70000000000");
+        SplittableRandom random = new SplittableRandom(42);
+
+        Account[] accounts = new Account[count];
+        long[] balances = new long[count];
+        for (int i = 0; i < count; i++) {
+            accounts[i] = new Account(client, AccountType.SAVINGS, "Benchmark");
+            accounts[i].deposit(random.nextLong(1, Money.ofTenge(10_000_000)));
+            balances[i] = accounts[i].getBalance();
+        }
+
+        InterestCalculator calculator = new InterestCalculator();
+        calculator.setStrategy(new SavingsInterest());
+        InterestKernel scalar = InterestKernel.scalar();
+        InterestKernel best = InterestKernel.best();
+        long[] perAccount = new long[count];
+        long[] scalarOut = new long[count];
+        long[] bestOut = new long[count];
+
+        double perAccountNanos = Double.MAX_VALUE;
+        double scalarNanos = Double.MAX_VALUE;
+        double bestNanos = Double.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long begin = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                perAccount[i] = calculator.execute(accounts[i]);
+            }
+            perAccountNanos = Math.min(perAccountNanos, System.nanoTime() - begin);
+
+            begin = System.nanoTime();
+            scalar.interest(balances, 300, scalarOut, count);
+            scalarNanos = Math.min(scalarNanos, System.nanoTime() - begin);
+
+            begin = System.nanoTime();
+            best.interest(balances, 300, bestOut, count);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - begin);
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (perAccount[i] != scalarOut[i] || perAccount[i] != bestOut[i]) {
+                throw new IllegalStateException("Kernels disagree on balance " + balances[i]);
+            }
+        }
+
+        System.out.printf("%,d accounts, best of %d rounds, kernel %s%n",
+                count, rounds, best.getClass().getSimpleName());
+        System.out.printf("%-14s %12s %12s%n", "method", "ms", "ns/account");
+        report("per-account", perAccountNanos, count);
+        report("bulk scalar", scalarNanos, count);
+        report("bulk best", bestNanos, count);
+    }
+
+    private static void report(String method, double nanos, int count) {
+        System.out.printf("%-14s %12.2f %12.2f%n", method, nanos / 1e6, nanos / count);
+    }
+}
@@ -1,6 +1,9 @@
 package builder;
 
 import model.Client;
+import model.Money;
+
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -12,7 +15,7 @@ import java.time.format.DateTimeFormatter;
 public class LoanAgreement {
     // Required fields
     private final Client client;
-    private final double amount;
+    private final long amount;
     private final double interestRate;
     private final int termMonths;
 
@@ -26,12 +29,12 @@ public class LoanAgreement {
      * Private constructor to enforce the use of Builder.
      * Called only by LoanAgreementBuilder.
      */
-    LoanAgreement(LoanAgreementBuilder builder) {
+    LoanAgreement(LoanAgreementBuilder builder, String agreementNumber) {
         this.client = builder.client;
         this.amount = builder.amount;
         this.interestRate = builder.interestRate;
         this.termMonths = builder.termMonths;
-        this.agreementNumber = builder.agreementNumber;
+        this.agreementNumber = agreementNumber;
         this.startDate = builder.startDate;
         this.purpose = builder.purpose;
         this.insuranceRequired = builder.insuranceRequired;
@@ -42,7 +45,10 @@ public class LoanAgreement {
         return client;
     }
 
-    public double getAmount() {
+    /**
+     * @return loan amount in tiyn
+     */
+    public long getAmount() {
         return amount;
     }
 
@@ -71,20 +77,23 @@ public class LoanAgreement {
     }
 
     /**
-     * Calculates the monthly payment amount.
-     * Uses the standard loan payment formula.
+     * Calculates the monthly payment amount in tiyn.
+     * Uses the standard loan payment formula, rounded half-up to the nearest tiyn.
      */
-    public double calculateMonthlyPayment() {
+    public long calculateMonthlyPayment() {
+        if (interestRate == 0) {
+            return Money.divide(amount, termMonths, RoundingMode.HALF_UP);
+        }
         double monthlyRate = interestRate / 100 / 12;
-        return amount * (monthlyRate * Math.pow(1 + monthlyRate, termMonths))
-               / (Math.pow(1 + monthlyRate, termMonths) - 1);
+        double growth = Math.pow(1 + monthlyRate, termMonths);
+        return Money.round(amount * monthlyRate * growth / (growth - 1), RoundingMode.HALF_UP);
     }
 
     /**
-     * Calculates the total amount to be paid over the loan term.
+     * Calculates the total amount to be paid over the loan term in tiyn.
      */
-    public double calculateTotalPayment() {
-        return calculateMonthlyPayment() * termMonths;
+    public long calculateTotalPayment() {
+        return Math.multiplyExact(calculateMonthlyPayment(), termMonths);
     }
 
     /**
@@ -98,17 +107,16 @@ public class LoanAgreement {
         System.out.println("╚════════════════════════════════════════════════════╝");
         System.out.println("[DOC] Agreement Number: " + agreementNumber);
         System.out.println("[CLIENT] Client: " + client.getName());
-        System.out.println("[AMOUNT] Loan Amount: $" + String.format("%,.2f", amount));
+        System.out.println("[AMOUNT] Loan Amount: $" + Money.format(amount));
         System.out.println("[RATE] Interest Rate: " + interestRate + "%");
         System.out.println("[TERM] Term: " + termMonths + " months (" + (termMonths / 12) + " years)");
         System.out.println("[DATE] Start Date: " + startDate.format(formatter));
         System.out.println("[PURPOSE] Purpose: " + purpose);
         System.out.println("[INSURANCE] Insurance: " + (insuranceRequired ? "Required" : "Not Required"));
         System.out.println("───────────────────────────────────────────────────");
-        System.out.println("[PAYMENT] Monthly Payment: $" + String.format("%,.2f", calculateMonthlyPayment()));
-        System.out.println("[TOTAL] Total Payment: $" + String.format("%,.2f", calculateTotalPayment()));
-        System.out.println("[INTEREST] Total Interest: $" + String.format("%,.2f",
-            calculateTotalPayment() - amount));
+        System.out.println("[PAYMENT] Monthly Payment: $" + Money.format(calculateMonthlyPayment()));
+        System.out.println("[TOTAL] Total Payment: $" + Money.format(calculateTotalPayment()));
+        System.out.println("[INTEREST] Total Interest: $" + Money.format(calculateTotalPayment() - amount));
         System.out.println("════════════════════════════════════════════════════\n");
     }
 
@@ -117,7 +125,7 @@ public class LoanAgreement {
         return "LoanAgreement{" +
                 "agreementNumber='" + agreementNumber + '\'' +
                 ", client=" + client.getName() +
-                ", amount=" + amount +
+                ", amount=" + Money.format(amount) +
                 ", interestRate=" + interestRate +
                 ", termMonths=" + termMonths +
                 '}';
@@ -2,7 +2,6 @@ package builder;
 
 import model.Client;
 import java.time.LocalDate;
-import java.util.Random;
 
 /**
  * Builder for creating LoanAgreement objects.
@@ -17,7 +16,7 @@ import java.util.Random;
  * <pre>
  * LoanAgreement loan = new LoanAgreementBuilder()
  *     .setClient(client)
- *     .setAmount(500_000)
+ *     .setAmount(Money.ofTenge(500_000))
  *     .setInterestRate(7.5)
  *     .setTermMonths(60)
  *     .build();
@@ -26,7 +25,7 @@ import java.util.Random;
 public class LoanAgreementBuilder implements LoanBuilder {
     // Required fields
     Client client;
-    double amount;
+    long amount;
     double interestRate;
     int termMonths;
 
@@ -40,8 +39,7 @@ public class LoanAgreementBuilder implements LoanBuilder {
      * Initializes builder with default values for optional fields.
      */
     public LoanAgreementBuilder() {
-        // Set default values
-        this.agreementNumber = generateAgreementNumber();
+        // Set default values; the agreement number is generated per build() unless set
         this.startDate = LocalDate.now();
         this.purpose = "General purpose";
         this.insuranceRequired = false;
@@ -67,11 +65,11 @@ public class LoanAgreementBuilder implements LoanBuilder {
      * Sets the loan amount.
      * This is a required field.
      *
-     * @param amount the loan amount in currency units
+     * @param amount the loan amount in tiyn
      * @return this builder instance for method chaining
      */
     @Override
-    public LoanBuilder setAmount(double amount) {
+    public LoanBuilder setAmount(long amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Loan amount must be positive");
         }
@@ -113,7 +111,8 @@ public class LoanAgreementBuilder implements LoanBuilder {
 
     /**
      * Sets a custom agreement number.
-     * This is an optional field (auto-generated if not set).
+     * This is an optional field (a fresh number is generated for every
+     * built agreement if not set).
      *
      * @param agreementNumber the agreement number
      * @return this builder instance for method chaining
@@ -165,7 +164,8 @@ public class LoanAgreementBuilder implements LoanBuilder {
 
     /**
      * Builds and returns the final LoanAgreement object.
-     * Validates that all required fields are set.
+     * Validates that all required fields are set and records the agreement
+     * with the client.
      *
      * @return a new immutable LoanAgreement instance
      * @throws IllegalStateException if required fields are not set
@@ -173,7 +173,10 @@ public class LoanAgreementBuilder implements LoanBuilder {
     @Override
     public LoanAgreement build() {
         validateRequiredFields();
-        return new LoanAgreement(this);
+        String number = agreementNumber != null ? agreementNumber : generateAgreementNumber();
+        LoanAgreement agreement = new LoanAgreement(this, number);
+        client.addLoan(agreement);
+        return agreement;
     }
 
     /**
@@ -198,16 +201,12 @@ public class LoanAgreementBuilder implements LoanBuilder {
 
     /**
      * Generates a unique agreement number.
-     * Format: LOAN-YYYYMMDD-XXXX where XXXX is a random number.
+     * Format: LOAN-YYYYMMDD-XXXXXXXXXXXXX where the suffix is a time-ordered
+     * 64-bit id from {@link AgreementNumberGenerator}.
      *
      * @return generated agreement number
      */
     private String generateAgreementNumber() {
-        LocalDate today = LocalDate.now();
-        String dateStr = String.format("%04d%02d%02d",
-            today.getYear(), today.getMonthValue(), today.getDayOfMonth());
-        int randomNum = 1000 + new Random().nextInt(9000);
-        return "LOAN-" + dateStr + "-" + randomNum;
+        return AgreementNumberGenerator.getInstance().nextAgreementNumber();
     }
 }
-
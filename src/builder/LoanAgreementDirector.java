@@ -33,10 +33,10 @@ public class LoanAgreementDirector {
      * Standard terms: 7.5% interest, 5 years (60 months), no insurance.
      *
      * @param client the client applying for the loan
-     * @param amount the loan amount
+     * @param amount the loan amount in tiyn
      * @return configured loan agreement
      */
-    public LoanAgreement constructStandardLoan(Client client, double amount) {
+    public LoanAgreement constructStandardLoan(Client client, long amount) {
         return builder
                 .setClient(client)
                 .setAmount(amount)
@@ -52,10 +52,10 @@ public class LoanAgreementDirector {
      * Mortgage terms: 6.8% interest, 30 years (360 months), insurance required.
      *
      * @param client the client applying for the loan
-     * @param amount the loan amount
+     * @param amount the loan amount in tiyn
      * @return configured loan agreement
      */
-    public LoanAgreement constructMortgageLoan(Client client, double amount) {
+    public LoanAgreement constructMortgageLoan(Client client, long amount) {
         return builder
                 .setClient(client)
                 .setAmount(amount)
@@ -71,10 +71,10 @@ public class LoanAgreementDirector {
      * Car loan terms: 8.5% interest, 5 years (60 months), insurance required.
      *
      * @param client the client applying for the loan
-     * @param amount the loan amount
+     * @param amount the loan amount in tiyn
      * @return configured loan agreement
      */
-    public LoanAgreement constructCarLoan(Client client, double amount) {
+    public LoanAgreement constructCarLoan(Client client, long amount) {
         return builder
                 .setClient(client)
                 .setAmount(amount)
@@ -90,10 +90,10 @@ public class LoanAgreementDirector {
      * Business loan terms: 9.0% interest, 10 years (120 months), no insurance.
      *
      * @param client the client applying for the loan
-     * @param amount the loan amount
+     * @param amount the loan amount in tiyn
      * @return configured loan agreement
      */
-    public LoanAgreement constructBusinessLoan(Client client, double amount) {
+    public LoanAgreement constructBusinessLoan(Client client, long amount) {
         return builder
                 .setClient(client)
                 .setAmount(amount)
@@ -109,13 +109,13 @@ public class LoanAgreementDirector {
      * Uses the builder directly for full customization.
      *
      * @param client the client applying for the loan
-     * @param amount the loan amount
+     * @param amount the loan amount in tiyn
      * @param interestRate the interest rate
      * @param termMonths the loan term in months
      * @param purpose the loan purpose
      * @return configured loan agreement
      */
-    public LoanAgreement constructCustomLoan(Client client, double amount,
+    public LoanAgreement constructCustomLoan(Client client, long amount,
                                              double interestRate, int termMonths,
                                              String purpose) {
         return builder
@@ -20,10 +20,10 @@ public interface LoanBuilder {
     /**
      * Sets the loan amount.
      *
-     * @param amount the loan amount in currency units
+     * @param amount the loan amount in tiyn
      * @return this builder instance for method chaining
      */
-    LoanBuilder setAmount(double amount);
+    LoanBuilder setAmount(long amount);
 
     /**
      * Sets the annual interest rate.
@@ -1,27 +1,37 @@
 package decorator;
 
-import model.Account;
 import model.AccountType;
+import model.Money;
 
 /**
  * Concrete decorator for SAVINGS accounts.
  * Adds extra bonus based on balance thresholds.
  */
 public class AccountBalanceDecorator extends BonusDecorator {
+    private static final long UPPER_THRESHOLD = Money.ofTenge(100000);
+    private static final long LOWER_THRESHOLD = Money.ofTenge(50000);
+
     public AccountBalanceDecorator(Bonus decoratedBonus) {
         super(decoratedBonus);
     }
 
     @Override
-    public int additionalBonus(Account account) {
-        int bonus = 0;
-        if (account.getAccountType() == AccountType.SAVINGS) {
-            if (account.getBalance() > 100000) {
+    public int additionalBonus(AccountType type, long balance) {
+        int bonus = super.additionalBonus(type, balance);
+        if (type == AccountType.SAVINGS) {
+            if (balance > UPPER_THRESHOLD) {
                 bonus += 2;
-            } else if (account.getBalance() > 50000) {
+            } else if (balance > LOWER_THRESHOLD) {
                 bonus += 1;
             }
         }
         return bonus;
     }
+
+    @Override
+    public long[] thresholds(AccountType type) {
+        return type == AccountType.SAVINGS
+                ? mergeThresholds(type, LOWER_THRESHOLD, UPPER_THRESHOLD)
+                : super.thresholds(type);
+    }
 }
@@ -1,6 +1,6 @@
 package decorator;
 
-import model.Account;
+import model.AccountType;
 
 /**
  * Concrete component.
@@ -8,7 +8,12 @@ import model.Account;
  */
 public class AccountBonus implements Bonus{
     @Override
-    public int additionalBonus(Account account) {
+    public int additionalBonus(AccountType type, long balance) {
         return 0;
     }
+
+    @Override
+    public long[] thresholds(AccountType type) {
+        return NO_THRESHOLDS;
+    }
 }
@@ -1,12 +1,33 @@
 package decorator;
 
 import model.Account;
+import model.AccountType;
 
 /**
  * Component interface.
  * Core interface for all bonus calculation strategies.
+ * <p>
+ * Bonuses depend only on the account type and balance, and change only when
+ * the balance crosses one of the reported thresholds. That lets callers cache
+ * the current tier and skip re-evaluation while the balance stays inside it.
  */
 public interface Bonus {
-    int additionalBonus(Account account);
-}
+    long[] NO_THRESHOLDS = new long[0];
+
+    /**
+     * @param balance balance in tiyn
+     * @return additional bonus percentage
+     */
+    int additionalBonus(AccountType type, long balance);
 
+    default int additionalBonus(Account account) {
+        return additionalBonus(account.getAccountType(), account.getBalance());
+    }
+
+    /**
+     * Returns the sorted balance thresholds (in tiyn) at which the bonus for
+     * this account type may change. A balance strictly above a threshold is on
+     * its upper side.
+     */
+    long[] thresholds(AccountType type);
+}
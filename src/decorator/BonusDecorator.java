@@ -1,6 +1,9 @@
 package decorator;
 
-import model.Account;
+import model.AccountType;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
 
 /**
  * Decorator.
@@ -14,7 +17,22 @@ public abstract class BonusDecorator implements Bonus{
     }
 
     @Override
-    public int additionalBonus(Account account) {
-        return decoratedBonus.additionalBonus(account);
+    public int additionalBonus(AccountType type, long balance) {
+        return decoratedBonus.additionalBonus(type, balance);
+    }
+
+    @Override
+    public long[] thresholds(AccountType type) {
+        return decoratedBonus.thresholds(type);
+    }
+
+    /**
+     * Merges the wrapped bonus thresholds with this decorator's own ones.
+     */
+    protected long[] mergeThresholds(AccountType type, long... own) {
+        return LongStream.concat(Arrays.stream(decoratedBonus.thresholds(type)), Arrays.stream(own))
+                .distinct()
+                .sorted()
+                .toArray();
     }
 }
@@ -0,0 +1,137 @@
+package decorator;
+
+import model.AccountType;
+
+import java.util.function.Function;
+
+/**
+ * A bonus decorator chain compiled into a flat threshold table.
+ * <p>
+ * For every account type the table holds the sorted thresholds reported by the
+ * chain and the bonus the chain returns for each tier between them. Evaluation
+ * is a short loop of comparisons over primitive arrays instead of a walk through
+ * nested decorators, and gives the same result as the chain it was compiled from.
+ * <p>
+ * All types share two flat arrays; {@code boundStart[t]} is where type
+ * {@code t}'s thresholds begin, and its tier values begin at {@code boundStart[t] + t}.
+ */
+public final class BonusRuleTable {
+    private static final AccountType[] TYPES = AccountType.values();
+
+    private final long[] bounds;
+    private final int[] values;
+    private final int[] boundStart;
+
+    private BonusRuleTable(long[] bounds, int[] values, int[] boundStart) {
+        this.bounds = bounds;
+        this.values = values;
+        this.boundStart = boundStart;
+    }
+
+    /**
+     * Compiles one decorator chain, applied to every account type.
+     */
+    public static BonusRuleTable compile(Bonus chain) {
+        return compile(type -> chain);
+    }
+
+    /**
+     * Compiles a separate decorator chain per account type.
+     * The chain is probed once per tier, at the tier's upper bound.
+     */
+    public static BonusRuleTable compile(Function<AccountType, Bonus> chains) {
+        long[][] perType = new long[TYPES.length][];
+        int[] boundStart = new int[TYPES.length + 1];
+        for (AccountType type : TYPES) {
+            perType[type.ordinal()] = chains.apply(type).thresholds(type);
+            boundStart[type.ordinal() + 1] = boundStart[type.ordinal()] + perType[type.ordinal()].length;
+        }
+
+        long[] bounds = new long[boundStart[TYPES.length]];
+        int[] values = new int[bounds.length + TYPES.length];
+        for (AccountType type : TYPES) {
+            Bonus chain = chains.apply(type);
+            long[] typeBounds = perType[type.ordinal()];
+            int start = boundStart[type.ordinal()];
+            System.arraycopy(typeBounds, 0, bounds, start, typeBounds.length);
+            for (int tier = 0; tier <= typeBounds.length; tier++) {
+                long probe = tier < typeBounds.length ? typeBounds[tier] : Long.MAX_VALUE;
+                values[start + type.ordinal() + tier] = chain.additionalBonus(type, probe);
+            }
+        }
+        return new BonusRuleTable(bounds, values, boundStart);
+    }
+
+    /**
+     * Returns the tier of a balance: how many of the type's thresholds it is strictly above.
+     */
+    public int tier(int typeOrdinal, long balance) {
+        int from = boundStart[typeOrdinal];
+        int to = boundStart[typeOrdinal + 1];
+        int tier = 0;
+        for (int i = from; i < to; i++) {
+            tier += balance > bounds[i] ? 1 : 0;
+        }
+        return tier;
+    }
+
+    /**
+     * Returns the lower (exclusive) bound of a tier, or {@link Long#MIN_VALUE} for the first tier.
+     */
+    public long lowerBound(int typeOrdinal, int tier) {
+        return tier == 0 ? Long.MIN_VALUE : bounds[boundStart[typeOrdinal] + tier - 1];
+    }
+
+    /**
+     * Returns the upper (inclusive) bound of a tier, or {@link Long#MAX_VALUE} for the last tier.
+     */
+    public long upperBound(int typeOrdinal, int tier) {
+        int index = boundStart[typeOrdinal] + tier;
+        return index == boundStart[typeOrdinal + 1] ? Long.MAX_VALUE : bounds[index];
+    }
+
+    /**
+     * Returns the additional bonus of a tier.
+     */
+    public int valueOf(int typeOrdinal, int tier) {
+        return values[boundStart[typeOrdinal] + typeOrdinal + tier];
+    }
+
+    /**
+     * Returns the additional bonus for a balance, same as {@link Bonus#additionalBonus}.
+     */
+    public int evaluate(AccountType type, long balance) {
+        int typeOrdinal = type.ordinal();
+        return valueOf(typeOrdinal, tier(typeOrdinal, balance));
+    }
+
+    /**
+     * Bulk evaluation over parallel arrays.
+     *
+     * @param balances balances in tiyn
+     * @param types    {@link AccountType} ordinals
+     * @param out      receives the additional bonus for each row
+     */
+    public void evaluate(long[] balances, byte[] types, int[] out) {
+        evaluateTiers(balances, types, out);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = valueOf(types[i], out[i]);
+        }
+    }
+
+    /**
+     * Bulk tier lookup over parallel arrays.
+     *
+     * @param balances balances in tiyn
+     * @param types    {@link AccountType} ordinals
+     * @param out      receives the tier index for each row
+     */
+    public void evaluateTiers(long[] balances, byte[] types, int[] out) {
+        if (balances.length != types.length || out.length != balances.length) {
+            throw new IllegalArgumentException("Column lengths differ");
+        }
+        for (int i = 0; i < balances.length; i++) {
+            out[i] = tier(types[i], balances[i]);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package decorator;
+
+import model.AccountType;
+
+/**
+ * Shared bonus decorator chains, one per account type, plus the balance
+ * thresholds that split each type into tiers.
+ * <p>
+ * Tier {@code i} of a type covers balances in {@code (thresholds[i-1], thresholds[i]]},
+ * with open ends for the first and last tier. Because the bonus can only change
+ * at a threshold, an account that caches its tier only has to look the bonus
+ * up again when a balance update leaves that range. Lookups go through the
+ * chains compiled into a {@link BonusRuleTable}.
+ */
+public final class BonusTiers {
+    /**
+     * Bonus percentage every account gets before decorators are applied.
+     */
+    public static final int BASE_BONUS = 1;
+
+    private static final BonusTiers instance = new BonusTiers();
+
+    private final Bonus[] chains;
+    private final BonusRuleTable table;
+
+    private BonusTiers() {
+        AccountType[] types = AccountType.values();
+        chains = new Bonus[types.length];
+        for (AccountType type : types) {
+            chains[type.ordinal()] = createChain(type);
+        }
+        table = BonusRuleTable.compile(type -> chains[type.ordinal()]);
+    }
+
+    public static BonusTiers getInstance() {
+        return instance;
+    }
+
+    /**
+     * Builds the decorator chain for an account type.
+     */
+    public static Bonus createChain(AccountType type) {
+        Bonus bonusLogic = new AccountBonus();
+        if (type == AccountType.SAVINGS)
+            bonusLogic = new AccountBalanceDecorator(bonusLogic);
+        else if (type == AccountType.DEPOSIT)
+            bonusLogic = new DepositBalanceDecorator(bonusLogic);
+        return bonusLogic;
+    }
+
+    public Bonus chain(AccountType type) {
+        return chains[type.ordinal()];
+    }
+
+    /**
+     * Returns the compiled form of the per-type chains.
+     */
+    public BonusRuleTable table() {
+        return table;
+    }
+
+    /**
+     * Returns the tier index of a balance: how many thresholds it is strictly above.
+     */
+    public int tierOf(AccountType type, long balance) {
+        return table.tier(type.ordinal(), balance);
+    }
+
+    /**
+     * Returns true if the balance still falls inside the given tier.
+     * Two comparisons, no allocation.
+     */
+    public boolean inTier(AccountType type, int tier, long balance) {
+        int typeOrdinal = type.ordinal();
+        return (tier == 0 || balance > table.lowerBound(typeOrdinal, tier))
+                && balance <= table.upperBound(typeOrdinal, tier);
+    }
+
+    /**
+     * Returns the total bonus percentage of a tier.
+     */
+    public int bonusOf(AccountType type, int tier) {
+        return BASE_BONUS + table.valueOf(type.ordinal(), tier);
+    }
+
+    /**
+     * Returns the total bonus percentage for a balance.
+     */
+    public int evaluate(AccountType type, long balance) {
+        return BASE_BONUS + table.evaluate(type, balance);
+    }
+}
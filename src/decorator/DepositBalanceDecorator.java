@@ -1,27 +1,37 @@
 package decorator;
 
-import model.Account;
 import model.AccountType;
+import model.Money;
 
 /**
  * Concrete decorator for DEPOSIT accounts.
  * Adds bonus percentage depending on balance size.
  */
 public class DepositBalanceDecorator extends BonusDecorator {
+    private static final long UPPER_THRESHOLD = Money.ofTenge(500000);
+    private static final long LOWER_THRESHOLD = Money.ofTenge(250000);
+
     public DepositBalanceDecorator(Bonus decoratedBonus) {
         super(decoratedBonus);
     }
 
     @Override
-    public int additionalBonus(Account account) {
-        int bonus = 0;
-        if (account.getAccountType() == AccountType.DEPOSIT) {
-            if (account.getBalance() > 500000) {
+    public int additionalBonus(AccountType type, long balance) {
+        int bonus = super.additionalBonus(type, balance);
+        if (type == AccountType.DEPOSIT) {
+            if (balance > UPPER_THRESHOLD) {
                 bonus += 2;
-            } else if (account.getBalance() > 250000) {
+            } else if (balance > LOWER_THRESHOLD) {
                 bonus += 1;
             }
         }
         return bonus;
     }
+
+    @Override
+    public long[] thresholds(AccountType type) {
+        return type == AccountType.DEPOSIT
+                ? mergeThresholds(type, LOWER_THRESHOLD, UPPER_THRESHOLD)
+                : super.thresholds(type);
+    }
 }
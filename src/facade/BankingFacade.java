@@ -2,13 +2,27 @@ package facade;
 
 import builder.LoanAgreement;
 import builder.LoanAgreementBuilder;
+import factory.ClientReport;
 import factory.Report;
 import factory.ReportFactory;
+import factory.ReportFormat;
 import model.Account;
+import model.AccountStore;
+import model.AccountType;
 import model.Client;
+import model.Money;
+import model.TransferResult;
 import observer.BankSystem;
+import strategy.InterestAccrualJob;
 import strategy.InterestCalculator;
 import strategy.InterestStrategy;
+import strategy.TimeAwareInterestStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Facade pattern.
@@ -18,38 +32,88 @@ public class BankingFacade {
     private final BankSystem bankSystem = BankSystem.getInstance();
 
     /**
-     * Transfers money between two accounts.
+     * Transfers money between two accounts as one atomic operation.
+     * The amount is in tiyn.
+     *
+     * @return the outcome; on failure neither balance has changed
+     */
+    public TransferResult transfer(Account from, Account to, long amount) {
+        return from.transferTo(to, amount);
+    }
+
+    /**
+     * Transfers at most once per idempotency key, so an upstream retry after
+     * a timeout returns the original outcome instead of charging twice.
      */
-    public void transfer(Account from, Account to, double amount) {
-        System.out.println("Initiating transfer...");
-        from.withdraw(amount);
-        to.deposit(amount);
-        System.out.println("Transfer completed successfully!\n");
+    public TransferResult transfer(Account from, Account to, long amount, String idempotencyKey) {
+        return from.transferTo(to, amount, idempotencyKey);
+    }
+
+    /**
+     * Executes a CSV file of transfers ({@code from,to,amount} in tenge) in
+     * parallel, writing one status row per line to {@code results}.
+     *
+     * @return counts per outcome and throughput
+     */
+    public BatchTransferStats transferBatch(Path instructions, Path results) throws IOException {
+        return new BatchTransferProcessor().processCsv(instructions, results);
     }
 
     /**
      * Generates report based on user role.
+     * Repeated calls are served from cache while the bank's state is unchanged.
      */
     public void generateReport(String role) {
-        Report report = ReportFactory.createReport(role);
+        Report report = ReportFactory.getCachedReport(role);
         report.generateReport();
     }
 
+    /**
+     * Streams a client's statement to a file, replacing it if it exists.
+     * Transactions are read from the journal and written as they are read,
+     * so the statement can be larger than memory.
+     */
+    public void exportStatement(Client client, Path file, ReportFormat format) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            new ClientReport(client).generateReport(channel, format);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     /**
      * Applies interest to an account using the given strategy.
      */
     public void applyInterest(Account account, InterestStrategy strategy) {
         InterestCalculator calculator = new InterestCalculator();
         calculator.setStrategy(strategy);
-        double interest = calculator.execute(account);
+        long interest = calculator.execute(account);
         account.deposit(interest);
-        System.out.printf("Interest of %.2f ₸ added to account [%s]%n%n", interest, account.getAccountType());
+        System.out.printf("Interest of %s ₸ added to account [%s]%n%n", Money.format(interest), account.getAccountType());
+    }
+
+    /**
+     * Runs the end-of-day accrual: credits interest to every account in the
+     * bank in parallel at the current rate-table rate for its type.
+     */
+    public InterestAccrualJob.Summary accrueInterest() {
+        return new InterestAccrualJob().run();
+    }
+
+    /**
+     * Makes accounts of a type earn interest compounded daily, credited lazily
+     * whenever an account is next read or used instead of by a nightly run.
+     */
+    public void enableDailyInterest(AccountType type, TimeAwareInterestStrategy strategy) {
+        AccountStore.getInstance().setDailyInterest(type, strategy);
     }
 
     /**
      * Creates a standard loan agreement for a client.
+     * The amount is in tiyn.
      */
-    public LoanAgreement createLoan(Client client, double amount) {
+    public LoanAgreement createLoan(Client client, long amount) {
         LoanAgreementBuilder builder = new LoanAgreementBuilder();
         return builder
                 .setClient(client)
@@ -0,0 +1,28 @@
+package facade;
+
+import model.TransferResult;
+
+/**
+ * Outcome of one line of a batch transfer file.
+ */
+public enum BatchLineStatus {
+    COMPLETED,
+    INSUFFICIENT_FUNDS,
+    INVALID_AMOUNT,
+    SAME_ACCOUNT,
+    BALANCE_OVERFLOW,
+    UNKNOWN_ACCOUNT,
+    MALFORMED;
+
+    private static final BatchLineStatus[] BY_TRANSFER_STATUS = new BatchLineStatus[TransferResult.Status.values().length];
+
+    static {
+        for (TransferResult.Status status : TransferResult.Status.values()) {
+            BY_TRANSFER_STATUS[status.ordinal()] = valueOf(status.name());
+        }
+    }
+
+    static BatchLineStatus of(TransferResult.Status status) {
+        return BY_TRANSFER_STATUS[status.ordinal()];
+    }
+}
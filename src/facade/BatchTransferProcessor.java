@@ -0,0 +1,343 @@
+package facade;
+
+import model.AccountStore;
+import model.Money;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Executes large files of transfer instructions in parallel.
+ * <p>
+ * Instructions are read in chunks into primitive columns. Each line gets a
+ * dependency level one above the last level that used either of its accounts,
+ * so lines of the same level touch disjoint accounts. Levels run one after
+ * another, the lines within a level in parallel; every account therefore sees
+ * its transfers in file order, which keeps funds checks deterministic.
+ * <p>
+ * Input is either CSV ({@code from,to,amount} with the amount in tenge, an
+ * optional header line) or binary big-endian records of
+ * {@code int from, int to, long amountTiyn}. The result file has one
+ * {@code line,status} row per instruction, numbered from 1 without the header.
+ */
+public class BatchTransferProcessor {
+    private static final int CHUNK_SIZE = 1 << 18;
+    private static final int BINARY_RECORD_SIZE = 16;
+    private static final int PARALLEL_THRESHOLD = 256;
+    private static final BatchLineStatus[] STATUSES = BatchLineStatus.values();
+
+    private final AccountStore store = AccountStore.getInstance();
+    private final ForkJoinPool pool;
+
+    public BatchTransferProcessor() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BatchTransferProcessor(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public BatchTransferStats processCsv(Path input, Path results) throws IOException {
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(input, StandardCharsets.UTF_8))) {
+            return process(reader, results);
+        }
+    }
+
+    public BatchTransferStats processBinary(Path input, Path results) throws IOException {
+        try (BinaryReader reader = new BinaryReader(FileChannel.open(input, StandardOpenOption.READ))) {
+            return process(reader, results);
+        }
+    }
+
+    /**
+     * One chunk of instructions in column form.
+     */
+    private static final class Chunk {
+        final int[] from = new int[CHUNK_SIZE];
+        final int[] to = new int[CHUNK_SIZE];
+        final long[] amounts = new long[CHUNK_SIZE];
+        final byte[] statuses = new byte[CHUNK_SIZE];
+        final int[] levels = new int[CHUNK_SIZE];
+        final int[] order = new int[CHUNK_SIZE];
+        int[] levelStarts;
+        int size;
+
+        void add(int fromId, int toId, long amount) {
+            from[size] = fromId;
+            to[size] = toId;
+            amounts[size] = amount;
+            statuses[size] = -1;
+            size++;
+        }
+
+        void addMalformed() {
+            from[size] = 0;
+            to[size] = 0;
+            amounts[size] = 0;
+            statuses[size] = (byte) BatchLineStatus.MALFORMED.ordinal();
+            size++;
+        }
+    }
+
+    private interface ChunkReader extends Closeable {
+        /**
+         * Fills the chunk from the start.
+         *
+         * @return false once the input is exhausted and nothing was read
+         */
+        boolean read(Chunk chunk) throws IOException;
+    }
+
+    private BatchTransferStats process(ChunkReader reader, Path results) throws IOException {
+        long begin = System.nanoTime();
+        long[] counts = new long[STATUSES.length];
+        long lines = 0;
+        long levels = 0;
+        Chunk chunk = new Chunk();
+        LevelTable lastLevel = new LevelTable();
+
+        try (BufferedWriter out = Files.newBufferedWriter(results, StandardCharsets.UTF_8)) {
+            while (reader.read(chunk)) {
+                lastLevel.reset(chunk.size);
+                int chunkLevels = schedule(chunk, lastLevel);
+                execute(chunk, chunkLevels);
+                levels += chunkLevels;
+
+                StringBuilder row = new StringBuilder(32);
+                for (int i = 0; i < chunk.size; i++) {
+                    BatchLineStatus status = STATUSES[chunk.statuses[i]];
+                    counts[status.ordinal()]++;
+                    row.setLength(0);
+                    row.append(lines + i + 1).append(',').append(status.name()).append('\n');
+                    out.append(row);
+                }
+                lines += chunk.size;
+            }
+        }
+        return new BatchTransferStats(counts, lines, levels, System.nanoTime() - begin);
+    }
+
+    /**
+     * Assigns levels and sorts line indexes by level into {@code chunk.order};
+     * the lines of level L end up in {@code order[levelStarts[L] .. levelStarts[L + 1])}.
+     * Lines that cannot run are resolved here and get level 0.
+     *
+     * @return the number of levels
+     */
+    private int schedule(Chunk chunk, LevelTable lastLevel) {
+        int maxLevel = 0;
+        for (int i = 0; i < chunk.size; i++) {
+            int level = 0;
+            if (chunk.statuses[i] < 0) {
+                int fromId = chunk.from[i];
+                int toId = chunk.to[i];
+                if (!store.exists(fromId) || !store.exists(toId)) {
+                    chunk.statuses[i] = (byte) BatchLineStatus.UNKNOWN_ACCOUNT.ordinal();
+                } else {
+                    int fromSlot = lastLevel.slot(fromId);
+                    int toSlot = lastLevel.slot(toId);
+                    level = Math.max(lastLevel.levels[fromSlot], lastLevel.levels[toSlot]) + 1;
+                    lastLevel.levels[fromSlot] = level;
+                    lastLevel.levels[toSlot] = level;
+                    maxLevel = Math.max(maxLevel, level);
+                }
+            }
+            chunk.levels[i] = level;
+        }
+
+        // counting sort of line indexes by level, stable so file order is kept
+        int[] starts = new int[maxLevel + 2];
+        for (int i = 0; i < chunk.size; i++) {
+            starts[chunk.levels[i] + 1]++;
+        }
+        for (int level = 1; level < starts.length; level++) {
+            starts[level] += starts[level - 1];
+        }
+        int[] next = Arrays.copyOf(starts, starts.length);
+        for (int i = 0; i < chunk.size; i++) {
+            chunk.order[next[chunk.levels[i]]++] = i;
+        }
+        chunk.levelStarts = starts;
+        return maxLevel;
+    }
+
+    /**
+     * Last level per account id within one chunk, in open addressing.
+     * Sized by the chunk rather than by the store, since a chunk touches at
+     * most two accounts per line. Id 0 marks a free slot; it is never a
+     * valid account.
+     */
+    private static final class LevelTable {
+        private int[] keys = new int[0];
+        int[] levels = new int[0];
+
+        /**
+         * Empties the table and makes room for the accounts of {@code lines} lines.
+         */
+        void reset(int lines) {
+            int capacity = Integer.highestOneBit(Math.max(16, lines * 4) - 1) << 1;
+            if (keys.length < capacity) {
+                keys = new int[capacity];
+                levels = new int[capacity];
+            } else {
+                Arrays.fill(keys, 0);
+                Arrays.fill(levels, 0);
+            }
+        }
+
+        /**
+         * Returns the slot of an account, claiming a free one at level 0 if needed.
+         */
+        int slot(int accountId) {
+            int mask = keys.length - 1;
+            int slot = mix(accountId) & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == accountId) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = accountId;
+            return slot;
+        }
+
+        private static int mix(int key) {
+            return key * 0x9E3779B9 ^ (key * 0x9E3779B9 >>> 16);
+        }
+    }
+
+    private void execute(Chunk chunk, int levelCount) {
+        int[] starts = chunk.levelStarts;
+        for (int level = 1; level <= levelCount; level++) {
+            int start = starts[level];
+            int end = starts[level + 1];
+            if (end - start < PARALLEL_THRESHOLD) {
+                for (int k = start; k < end; k++) {
+                    transfer(chunk, chunk.order[k]);
+                }
+            } else {
+                pool.submit(() -> IntStream.range(start, end).parallel()
+                        .forEach(k -> transfer(chunk, chunk.order[k]))).join();
+            }
+        }
+    }
+
+    private void transfer(Chunk chunk, int line) {
+        BatchLineStatus status = BatchLineStatus.of(store.account(chunk.from[line])
+                .transferTo(store.account(chunk.to[line]), chunk.amounts[line])
+                .getStatus());
+        chunk.statuses[line] = (byte) status.ordinal();
+    }
+
+    private static final class CsvReader implements ChunkReader {
+        private final BufferedReader in;
+        private boolean firstLine = true;
+
+        CsvReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean read(Chunk chunk) throws IOException {
+            chunk.size = 0;
+            String line;
+            while (chunk.size < CHUNK_SIZE && (line = in.readLine()) != null) {
+                boolean header = firstLine && isHeader(line);
+                firstLine = false;
+                if (header) {
+                    continue;
+                }
+                parse(line, chunk);
+            }
+            return chunk.size > 0;
+        }
+
+        /**
+         * A header has no numeric field, so a data line that starts with a
+         * space or a sign is still parsed (and reported if malformed).
+         */
+        private static boolean isHeader(String line) {
+            if (line.isBlank()) {
+                return false;
+            }
+            for (String field : line.split(",", -1)) {
+                String value = field.strip();
+                int start = !value.isEmpty() && (value.charAt(0) == '+' || value.charAt(0) == '-') ? 1 : 0;
+                if (start < value.length() && Character.isDigit(value.charAt(start))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void parse(String line, Chunk chunk) {
+            int first = line.indexOf(',');
+            int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+            if (second < 0 || line.indexOf(',', second + 1) >= 0) {
+                chunk.addMalformed();
+                return;
+            }
+            try {
+                int fromId = Integer.parseInt(line, 0, first, 10);
+                int toId = Integer.parseInt(line, first + 1, second, 10);
+                long amount = Money.parse(line.substring(second + 1).strip());
+                chunk.add(fromId, toId, amount);
+            } catch (NumberFormatException e) {
+                chunk.addMalformed();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static final class BinaryReader implements ChunkReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BINARY_RECORD_SIZE * 8192);
+
+        BinaryReader(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        @Override
+        public boolean read(Chunk chunk) throws IOException {
+            chunk.size = 0;
+            while (chunk.size < CHUNK_SIZE) {
+                if (buffer.remaining() < BINARY_RECORD_SIZE) {
+                    buffer.compact();
+                    int read = channel.read(buffer);
+                    buffer.flip();
+                    if (read < 0) {
+                        if (buffer.hasRemaining()) {
+                            throw new EOFException("Truncated transfer record at end of file");
+                        }
+                        break;
+                    }
+                    continue;
+                }
+                chunk.add(buffer.getInt(), buffer.getInt(), buffer.getLong());
+            }
+            return chunk.size > 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package facade;
+
+/**
+ * Summary of a processed batch transfer file.
+ */
+public final class BatchTransferStats {
+    private final long[] counts;
+    private final long lines;
+    private final long levels;
+    private final long elapsedNanos;
+
+    BatchTransferStats(long[] counts, long lines, long levels, long elapsedNanos) {
+        this.counts = counts.clone();
+        this.lines = lines;
+        this.levels = levels;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getCount(BatchLineStatus status) {
+        return counts[status.ordinal()];
+    }
+
+    /**
+     * @return number of dependency levels the lines were scheduled in; lines
+     *         of one level touch disjoint accounts and ran in parallel
+     */
+    public long getLevels() {
+        return levels;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getLinesPerSecond() {
+        return elapsedNanos == 0 ? 0 : lines / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Processed %,d lines in %.1f ms (%,.0f lines/s, %,d levels)",
+                lines, elapsedNanos / 1e6, getLinesPerSecond(), levels));
+        for (BatchLineStatus status : BatchLineStatus.values()) {
+            if (counts[status.ordinal()] > 0) {
+                sb.append(String.format("%n  %-18s %,d", status, counts[status.ordinal()]));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,24 +1,117 @@
 package factory;
 
+import audit.AuditFlag;
+import audit.AuditResult;
+import audit.AuditScanner;
+import model.AccountStore;
+import persistence.TransactionJournal;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Audit report implementation.
  * Provides compliance and security audit information for auditors.
+ * <p>
+ * Runs an {@link AuditScanner} over the journal for the current calendar
+ * month and writes its counters and the first flagged movements. When
+ * snapshot checkpoints have deleted journal the month needs, the report
+ * shows where coverage starts and does not pass the audit.
  */
 public class AuditReport implements Report {
+    private static final int LISTED_FLAGS = 10;
+    private static final DateTimeFormatter PERIOD = DateTimeFormatter.ofPattern("LLLL yyyy", Locale.ENGLISH);
+
+    private final int listedFlags;
+
+    public AuditReport() {
+        this(LISTED_FLAGS);
+    }
+
+    /**
+     * @param listedFlags how many flagged movements to list individually, e.g.
+     *                    {@link Integer#MAX_VALUE} for a full export
+     */
+    public AuditReport(int listedFlags) {
+        this.listedFlags = listedFlags;
+    }
 
     @Override
-    public void generateReport() {
-        System.out.println("╔════════════════════════════════════════════╗");
-        System.out.println("║        AUDIT & COMPLIANCE REPORT          ║");
-        System.out.println("╚════════════════════════════════════════════╝");
-        System.out.println("[SEARCH] Audit Period: November 2025");
-        System.out.println("[OK] Compliance Status: PASSED");
-        System.out.println("[WARNING] Flagged Transactions: 3");
-        System.out.println("[SECURITY] Security Incidents: 0");
-        System.out.println("[CHECKLIST] Regulatory Requirements: 100% Met");
-        System.out.println("[REVIEW] Reviewed Accounts: 245");
-        System.out.println("[NOTE] Notes: All AML checks completed successfully");
-        System.out.println("═══════════════════════════════════════════════\n");
+    public void writeReport(ReportSink sink) throws IOException {
+        AccountStore store = AccountStore.getInstance();
+        ZoneId zone = store.getClock().getZone();
+        LocalDate month = LocalDate.now(store.getClock()).withDayOfMonth(1);
+        long from = month.atStartOfDay(zone).toInstant().toEpochMilli();
+        long to = month.plusMonths(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        sink.begin(getReportType(), "AUDIT & COMPLIANCE REPORT");
+        sink.field("SEARCH", "Audit Period", PERIOD.format(month));
+        TransactionJournal journal = store.getJournal();
+        if (journal == null) {
+            sink.field("WARNING", "Audit Status", "No transaction journal attached; nothing to audit");
+            sink.end();
+            return;
+        }
+        AuditResult result;
+        try {
+            result = new AuditScanner().scan(journal, from, to);
+        } catch (IOException e) {
+            sink.field("ERROR", "Audit Status", "Audit scan failed: " + e.getMessage());
+            sink.end();
+            return;
+        }
+
+        sink.field("SEARCH", "Covered From", Instant.ofEpochMilli(result.getCoveredFromMillis()).toString());
+        String status;
+        if (result.getFlaggedMovements() != 0) {
+            status = "REVIEW REQUIRED";
+        } else if (!result.isComplete()) {
+            status = "INCOMPLETE: journal before " + Instant.ofEpochMilli(result.getCoveredFromMillis())
+                    + " was compacted into a snapshot";
+        } else {
+            status = "PASSED";
+        }
+        sink.field(result.isComplete() ? "OK" : "WARNING", "Compliance Status", status);
+        sink.field("WARNING", "Flagged Transactions", result.getFlaggedMovements());
+        sink.beginTable("Flags by Rule", "rule", "flags");
+        for (Map.Entry<String, Long> rule : result.getFlagsByRule().entrySet()) {
+            sink.beginRow();
+            sink.cell(rule.getKey());
+            sink.cell(rule.getValue());
+            sink.endRow();
+        }
+        sink.endTable();
+        sink.field("REVIEW", "Reviewed Accounts", result.getAccountsReviewed());
+        sink.field("CHECKLIST", "Movements Checked", result.getMovements());
+        sink.field("CHECKLIST", "Journal Records", result.getRecordsScanned());
+        sink.field("CHECKLIST", "Scan Time ms", result.getElapsedNanos() / 1_000_000);
+
+        List<AuditFlag> flags = result.getFlags();
+        int listed = Math.min(listedFlags, flags.size());
+        sink.beginTable("Flagged Movements", "time", "account", "operation", "amount", "rule", "lsn");
+        for (int i = 0; i < listed; i++) {
+            AuditFlag flag = flags.get(i);
+            sink.beginRow();
+            sink.cell(Instant.ofEpochMilli(flag.getTimestampMillis()).toString());
+            sink.cell(flag.getAccountId());
+            sink.cell(flag.getOp().name());
+            sink.moneyCell(flag.getSignedAmount());
+            sink.cell(flag.getRule());
+            sink.cell(flag.getLsn());
+            sink.endRow();
+        }
+        sink.endTable();
+        long ruleHits = result.getFlagsByRule().values().stream().mapToLong(Long::longValue).sum();
+        if (ruleHits > listed) {
+            sink.field(null, "Not Listed", ruleHits - listed);
+        }
+        sink.end();
     }
 
     @Override
@@ -26,4 +119,3 @@ public class AuditReport implements Report {
         return "Audit Report";
     }
 }
-
@@ -1,23 +1,43 @@
 package factory;
 
+import model.BankStatistics;
+import observer.TransactionEvent.Operation;
+
+import java.io.IOException;
+import java.util.Locale;
+
 /**
  * Bank report implementation.
  * Provides overall bank statistics and financial summary for bank managers.
+ * <p>
+ * Figures come from the live {@link BankStatistics} counters, so generating
+ * the report takes the same time for a thousand accounts as for tens of millions.
  */
 public class BankReport implements Report {
+    private final BankStatistics statistics = BankStatistics.getInstance();
 
     @Override
-    public void generateReport() {
-        System.out.println("╔════════════════════════════════════════════╗");
-        System.out.println("║        BANK MANAGEMENT REPORT             ║");
-        System.out.println("╚════════════════════════════════════════════╝");
-        System.out.println("[BANK] Total Accounts: 1,547");
-        System.out.println("[MONEY] Total Deposits: $45,780,250.00");
-        System.out.println("[CASH] Total Withdrawals: $12,340,150.00");
-        System.out.println("[GROWTH] Net Growth: +15.3%");
-        System.out.println("[USERS] Active Clients: 892");
-        System.out.println("[TARGET] Loan Portfolio: $23,500,000.00");
-        System.out.println("═══════════════════════════════════════════════\n");
+    public void writeReport(ReportSink sink) throws IOException {
+        long deposits = statistics.getAmount(Operation.DEPOSIT);
+        long netFlow = statistics.getNetFlow();
+        sink.begin(getReportType(), "BANK MANAGEMENT REPORT");
+        sink.field("BANK", "Total Accounts", statistics.getAccounts());
+        operation(sink, "MONEY", "Total Deposits", Operation.DEPOSIT);
+        operation(sink, "CASH", "Total Withdrawals", Operation.WITHDRAW);
+        operation(sink, "CARD", "Total Payments", Operation.PAYMENT);
+        operation(sink, "TRANSFER", "Total Transfers", Operation.TRANSFER_OUT);
+        sink.money("GROWTH", "Net Growth", netFlow);
+        sink.field("GROWTH", "Net Growth Percent",
+                String.format(Locale.ROOT, "%+.1f", deposits == 0 ? 0.0 : 100.0 * netFlow / deposits));
+        sink.field("USERS", "Active Clients", statistics.getActiveClients());
+        sink.money("TARGET", "Loan Portfolio", statistics.getLoanPortfolio());
+        sink.field("TARGET", "Loans", statistics.getLoans());
+        sink.end();
+    }
+
+    private void operation(ReportSink sink, String tag, String name, Operation operation) throws IOException {
+        sink.money(tag, name, statistics.getAmount(operation));
+        sink.field(tag, name + " Count", statistics.getCount(operation));
     }
 
     @Override
@@ -25,4 +45,3 @@ public class BankReport implements Report {
         return "Bank Operations Report";
     }
 }
-
@@ -0,0 +1,110 @@
+package factory;
+
+import model.AccountStore;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Report that is generated once and then served from a recording until the
+ * bank's state changes.
+ * <p>
+ * A generation is tagged with the {@link AccountStore#version() state version}
+ * read before it started and with the current day, since interest accrual and
+ * the audit period depend on the date. It is reused while the version has not
+ * grown past its tag and the day is the same. Otherwise the first caller to
+ * notice installs a new generation and produces the report; callers arriving
+ * meanwhile wait for that one result instead of generating their own
+ * (single flight). The recording is replayed into each caller's sink, so one
+ * generation serves every {@link ReportFormat}.
+ * <p>
+ * Reports that make more than {@link #MAX_RECORDED_CALLS} sink calls, such as
+ * long statements, are not kept; they are generated for each caller.
+ */
+final class CachedReport implements Report {
+    static final int MAX_RECORDED_CALLS = 1 << 16;
+
+    private static final RecordingSink TOO_LARGE = new RecordingSink(0);
+
+    private final String reportType;
+    private final Supplier<Report> source;
+    private final AccountStore store = AccountStore.getInstance();
+    private final AtomicReference<Generation> generation = new AtomicReference<>();
+
+    /**
+     * One attempt at producing the report for a state version and day.
+     * Its result is the recording, {@link #TOO_LARGE}, or null if it failed.
+     */
+    private record Generation(long version, int day, CompletableFuture<RecordingSink> result) {
+        boolean covers(long version, int day) {
+            return this.version >= version && this.day == day;
+        }
+    }
+
+    /**
+     * @param source creates a fresh report each time the cached one is out of date
+     */
+    CachedReport(String reportType, Supplier<Report> source) {
+        this.reportType = reportType;
+        this.source = source;
+    }
+
+    @Override
+    public void writeReport(ReportSink sink) throws IOException {
+        while (true) {
+            long version = store.version();
+            int day = store.today();
+            Generation current = generation.get();
+            if (current == null || !current.covers(version, day)) {
+                Generation next = new Generation(version, day, new CompletableFuture<>());
+                if (!generation.compareAndSet(current, next)) {
+                    continue;
+                }
+                current = next;
+                produce(next);
+            }
+            RecordingSink recording = current.result().join();
+            if (recording == TOO_LARGE) {
+                source.get().writeReport(sink);
+                return;
+            }
+            if (recording != null) {
+                recording.replay(sink);
+                return;
+            }
+            // the generation failed and has been withdrawn; try again
+        }
+    }
+
+    /**
+     * Generates the report for a generation this thread installed.
+     * A failure is rethrown to this caller only; waiting callers retry.
+     */
+    private void produce(Generation next) throws IOException {
+        RecordingSink recording = new RecordingSink(MAX_RECORDED_CALLS);
+        try {
+            source.get().writeReport(recording);
+            next.result().complete(recording);
+        } catch (RecordingSink.TooLargeException e) {
+            next.result().complete(TOO_LARGE);
+        } catch (IOException | RuntimeException | Error e) {
+            generation.compareAndSet(next, null);
+            next.result().complete(null);
+            throw e;
+        }
+    }
+
+    /**
+     * Forgets the current generation, so the next call generates the report again.
+     */
+    void invalidate() {
+        generation.set(null);
+    }
+
+    @Override
+    public String getReportType() {
+        return reportType;
+    }
+}
@@ -1,23 +1,173 @@
 package factory;
 
+import model.Account;
+import model.AccountStore;
+import model.Client;
+import persistence.JournalOp;
+import persistence.JournalRecord;
+import persistence.TransactionJournal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Client report implementation.
  * Provides account information and transaction history for clients.
+ * <p>
+ * Created for a {@link Client}, the report is a statement: the client's
+ * accounts and every balance movement on them that is still in the
+ * transaction journal, written row by row while the journal is replayed.
+ * Checkpoints delete older journal, so the statement opens with the date its
+ * history starts and the balance at that point, the current total minus the
+ * movements listed, and reconciles with the total balance. That takes one
+ * extra pass over the journal before the rows are written.
+ * Without a client it shows a sample statement.
  */
 public class ClientReport implements Report {
+    private final Client client;
+
+    public ClientReport() {
+        this(null);
+    }
+
+    public ClientReport(Client client) {
+        this.client = client;
+    }
 
     @Override
-    public void generateReport() {
-        System.out.println("╔════════════════════════════════════════════╗");
-        System.out.println("║        CLIENT ACCOUNT REPORT              ║");
-        System.out.println("╚════════════════════════════════════════════╝");
-        System.out.println("[STATS] Account Balance: $10,500.00");
-        System.out.println("[CARD] Recent Transactions:");
-        System.out.println("  - Deposit: +$5,000.00");
-        System.out.println("  - Withdrawal: -$1,500.00");
-        System.out.println("  - Payment: -$200.00");
-        System.out.println("[BONUS] Bonus Balance: $125.50");
-        System.out.println("═══════════════════════════════════════════════\n");
+    public void writeReport(ReportSink sink) throws IOException {
+        sink.begin(getReportType(), "CLIENT ACCOUNT REPORT");
+        if (client == null) {
+            writeSample(sink);
+        } else {
+            writeStatement(sink);
+        }
+        sink.end();
+    }
+
+    private void writeSample(ReportSink sink) throws IOException {
+        sink.money("STATS", "Account Balance", 1_050_000);
+        sink.beginTable("Recent Transactions", "operation", "amount");
+        sampleRow(sink, "Deposit", 500_000);
+        sampleRow(sink, "Withdrawal", -150_000);
+        sampleRow(sink, "Payment", -20_000);
+        sink.endTable();
+        sink.money("BONUS", "Bonus Balance", 12_550);
+    }
+
+    private static void sampleRow(ReportSink sink, String operation, long tiyn) throws IOException {
+        sink.beginRow();
+        sink.cell(operation);
+        sink.moneyCell(tiyn);
+        sink.endRow();
+    }
+
+    private void writeStatement(ReportSink sink) throws IOException {
+        List<Account> accounts = client.getAccounts();
+        int[] ids = new int[accounts.size()];
+        long total = 0;
+        sink.field("USER", "Client", client.getName());
+        sink.field("USER", "Client ID", client.getClientId());
+        sink.beginTable("Accounts", "account", "type", "name", "balance");
+        for (int i = 0; i < ids.length; i++) {
+            Account account = accounts.get(i);
+            long balance = account.getBalance();
+            ids[i] = account.getAccountId();
+            total += balance;
+            sink.beginRow();
+            sink.cell(account.getAccountId());
+            sink.cell(account.getAccountType().name());
+            sink.cell(account.getAccountName());
+            sink.moneyCell(balance);
+            sink.endRow();
+        }
+        sink.endTable();
+        sink.money("STATS", "Total Balance", total);
+        Arrays.sort(ids);
+
+        TransactionJournal journal = AccountStore.getInstance().getJournal();
+        if (journal == null) {
+            sink.field("WARNING", "Transactions", "No transaction journal attached");
+            return;
+        }
+        // the balances above were read first, so their records end before this position
+        long end = journal.position();
+        long[] moved = {0};
+        long[] oldest = {Long.MAX_VALUE};
+        replayMovements(journal, end, ids, oldest, (record, accountId, delta, counterpartyId) -> moved[0] += delta);
+        if (oldest[0] != Long.MAX_VALUE) {
+            sink.field("STATS", "History From", Instant.ofEpochMilli(oldest[0]).toString());
+        }
+        sink.money("STATS", "Opening Balance", total - moved[0]);
+        sink.beginTable("Transactions", "time", "account", "operation", "amount", "counterparty", "lsn");
+        replayMovements(journal, end, ids, null,
+                (record, accountId, delta, counterpartyId) -> transactionRow(sink, record, accountId, delta,
+                        counterpartyId));
+        sink.endTable();
+    }
+
+    /**
+     * Receives one side of a balance record that touches the client's accounts.
+     */
+    @FunctionalInterface
+    private interface MovementVisitor {
+        void visit(JournalRecord record, int accountId, long delta, int counterpartyId) throws IOException;
+    }
+
+    /**
+     * Replays the journal up to {@code end} and passes every movement on the
+     * accounts in {@code ids} (sorted) to the visitor; a transfer between two
+     * of them is two movements.
+     *
+     * @param oldest if not null, {@code oldest[0]} receives the time of the
+     *               oldest record replayed, of any kind
+     */
+    private static void replayMovements(TransactionJournal journal, long end, int[] ids, long[] oldest,
+                                        MovementVisitor visitor) throws IOException {
+        try {
+            journal.replay(0, end, record -> {
+                if (oldest != null) {
+                    oldest[0] = Math.min(oldest[0], record.getTimestampMillis());
+                }
+                if (!record.getOp().changesBalance()) {
+                    return;
+                }
+                try {
+                    if (Arrays.binarySearch(ids, record.getAccountId()) >= 0) {
+                        visitor.visit(record, record.getAccountId(), record.balanceDelta(),
+                                record.getOp() == JournalOp.TRANSFER ? record.getCounterpartyId() : -1);
+                    }
+                    if (record.getOp() == JournalOp.TRANSFER
+                            && Arrays.binarySearch(ids, record.getCounterpartyId()) >= 0) {
+                        visitor.visit(record, record.getCounterpartyId(), -record.balanceDelta(),
+                                record.getAccountId());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void transactionRow(ReportSink sink, JournalRecord record, int accountId, long delta,
+                                       int counterpartyId) throws IOException {
+        sink.beginRow();
+        sink.cell(Instant.ofEpochMilli(record.getTimestampMillis()).toString());
+        sink.cell(accountId);
+        sink.cell(record.getOp().name());
+        sink.moneyCell(delta);
+        if (counterpartyId >= 0) {
+            sink.cell(counterpartyId);
+        } else {
+            sink.cell("");
+        }
+        sink.cell(record.getLsn());
+        sink.endRow();
     }
 
     @Override
@@ -25,4 +175,3 @@ public class ClientReport implements Report {
         return "Client Report";
     }
 }
-
@@ -1,5 +1,9 @@
 package factory;
 
+import model.Client;
+
+import java.util.List;
+
 /**
  * Concrete Creator for Client Reports.
  * Implements the factory method to create ClientReport instances.
@@ -17,6 +21,21 @@ public class ClientReportCreator extends ReportCreator {
         return new ClientReport();
     }
 
+    /**
+     * Creates a statement for the {@link Client} given as the only parameter,
+     * or the sample report when there are no parameters.
+     */
+    @Override
+    public Report createReport(List<?> parameters) {
+        if (parameters.isEmpty()) {
+            return createReport();
+        }
+        if (parameters.size() == 1 && parameters.get(0) instanceof Client client) {
+            return new ClientReport(client);
+        }
+        throw new IllegalArgumentException("Client report takes one Client parameter, got " + parameters);
+    }
+
     /**
      * Returns information about this creator.
      *
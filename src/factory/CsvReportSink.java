@@ -0,0 +1,122 @@
+package factory;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * CSV layout (RFC 4180 quoting): a {@code report,<type>} row, one
+ * {@code name,value} row per field, and for each table an empty line, a row
+ * with the table name, a header row and the data rows.
+ */
+final class CsvReportSink extends ReportSink {
+    private boolean firstCell;
+
+    CsvReportSink(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void begin(String reportType, String heading) throws IOException {
+        out.write("report,");
+        quoted(reportType);
+        out.write("\r\n");
+    }
+
+    @Override
+    public void field(String tag, String name, String value) throws IOException {
+        quoted(name);
+        out.write(',');
+        quoted(value);
+        out.write("\r\n");
+    }
+
+    @Override
+    public void field(String tag, String name, long value) throws IOException {
+        field(tag, name, Long.toString(value));
+    }
+
+    @Override
+    public void money(String tag, String name, long tiyn) throws IOException {
+        field(tag, name, amount(tiyn));
+    }
+
+    @Override
+    public void beginTable(String name, String... columns) throws IOException {
+        out.write("\r\n");
+        quoted(name);
+        out.write("\r\n");
+        beginRow();
+        for (String column : columns) {
+            cell(column);
+        }
+        endRow();
+    }
+
+    @Override
+    public void beginRow() {
+        firstCell = true;
+    }
+
+    @Override
+    public void cell(String value) throws IOException {
+        separate();
+        quoted(value);
+    }
+
+    @Override
+    public void cell(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+    }
+
+    @Override
+    public void moneyCell(long tiyn) throws IOException {
+        separate();
+        out.write(amount(tiyn));
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        out.write("\r\n");
+    }
+
+    @Override
+    public void endTable() {
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.flush();
+    }
+
+    private void separate() throws IOException {
+        if (!firstCell) {
+            out.write(',');
+        }
+        firstCell = false;
+    }
+
+    private void quoted(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,134 @@
+package factory;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * JSON layout: one object with a {@code "report"} member, a member per field
+ * and an array of row objects per table, keyed by column name. Money is
+ * written as a decimal number of tenge. Each row is on its own line.
+ */
+final class JsonReportSink extends ReportSink {
+    private String[] columns;
+    private int column;
+    private boolean firstRow;
+
+    JsonReportSink(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void begin(String reportType, String heading) throws IOException {
+        out.write("{\"report\":");
+        string(reportType);
+    }
+
+    @Override
+    public void field(String tag, String name, String value) throws IOException {
+        member(name);
+        string(value);
+    }
+
+    @Override
+    public void field(String tag, String name, long value) throws IOException {
+        member(name);
+        out.write(Long.toString(value));
+    }
+
+    @Override
+    public void money(String tag, String name, long tiyn) throws IOException {
+        member(name);
+        out.write(amount(tiyn));
+    }
+
+    @Override
+    public void beginTable(String name, String... columns) throws IOException {
+        member(name);
+        out.write('[');
+        this.columns = columns;
+        firstRow = true;
+    }
+
+    @Override
+    public void beginRow() throws IOException {
+        out.write(firstRow ? "\n{" : ",\n{");
+        firstRow = false;
+        column = 0;
+    }
+
+    @Override
+    public void cell(String value) throws IOException {
+        nextCell();
+        string(value);
+    }
+
+    @Override
+    public void cell(long value) throws IOException {
+        nextCell();
+        out.write(Long.toString(value));
+    }
+
+    @Override
+    public void moneyCell(long tiyn) throws IOException {
+        nextCell();
+        out.write(amount(tiyn));
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        out.write('}');
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        out.write(']');
+        columns = null;
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.write("}\n");
+        out.flush();
+    }
+
+    private void member(String name) throws IOException {
+        out.write(",\n");
+        string(name);
+        out.write(':');
+    }
+
+    private void nextCell() throws IOException {
+        if (column > 0) {
+            out.write(',');
+        }
+        string(column < columns.length ? columns[column] : "column" + column);
+        out.write(':');
+        column++;
+    }
+
+    private void string(String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                out.write(value, start, i - start);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> out.write(String.format("\\u%04x", (int) c));
+                }
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,174 @@
+package factory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Sink that keeps the calls made to it so they can be replayed into any
+ * other sink, in any format. One generated report can then be served many
+ * times without generating it again.
+ * <p>
+ * Calls are stored in three parallel arrays (operation, number, text), so a
+ * recording costs a few words per call plus the strings the report made anyway.
+ */
+final class RecordingSink extends ReportSink {
+    private static final byte BEGIN = 0;
+    private static final byte FIELD_TEXT = 1;
+    private static final byte FIELD_NUMBER = 2;
+    private static final byte FIELD_MONEY = 3;
+    private static final byte BEGIN_TABLE = 4;
+    private static final byte BEGIN_ROW = 5;
+    private static final byte CELL_TEXT = 6;
+    private static final byte CELL_NUMBER = 7;
+    private static final byte CELL_MONEY = 8;
+    private static final byte END_ROW = 9;
+    private static final byte END_TABLE = 10;
+    private static final byte END = 11;
+
+    /**
+     * Thrown when a report makes more calls than the recording may hold.
+     */
+    static final class TooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TooLargeException() {
+            super("Report too large to record", null, false, false);
+        }
+    }
+
+    private final int maxCalls;
+    private byte[] ops = new byte[256];
+    private long[] numbers = new long[256];
+    private Object[] texts = new Object[256];
+    private int size;
+
+    /**
+     * @param maxCalls how many sink calls may be recorded before {@link TooLargeException}
+     */
+    RecordingSink(int maxCalls) {
+        super(Writer.nullWriter());
+        this.maxCalls = maxCalls;
+    }
+
+    /**
+     * Makes the recorded calls on another sink, in order.
+     */
+    void replay(ReportSink sink) throws IOException {
+        for (int i = 0; i < size; i++) {
+            switch (ops[i]) {
+                case BEGIN -> {
+                    String[] text = (String[]) texts[i];
+                    sink.begin(text[0], text[1]);
+                }
+                case FIELD_TEXT -> {
+                    String[] text = (String[]) texts[i];
+                    sink.field(text[0], text[1], text[2]);
+                }
+                case FIELD_NUMBER -> {
+                    String[] text = (String[]) texts[i];
+                    sink.field(text[0], text[1], numbers[i]);
+                }
+                case FIELD_MONEY -> {
+                    String[] text = (String[]) texts[i];
+                    sink.money(text[0], text[1], numbers[i]);
+                }
+                case BEGIN_TABLE -> {
+                    String[] text = (String[]) texts[i];
+                    sink.beginTable(text[0], Arrays.copyOfRange(text, 1, text.length));
+                }
+                case BEGIN_ROW -> sink.beginRow();
+                case CELL_TEXT -> sink.cell((String) texts[i]);
+                case CELL_NUMBER -> sink.cell(numbers[i]);
+                case CELL_MONEY -> sink.moneyCell(numbers[i]);
+                case END_ROW -> sink.endRow();
+                case END_TABLE -> sink.endTable();
+                case END -> sink.end();
+                default -> throw new IllegalStateException("Unknown recorded call: " + ops[i]);
+            }
+        }
+    }
+
+    @Override
+    public void begin(String reportType, String heading) {
+        add(BEGIN, 0, new String[]{reportType, heading});
+    }
+
+    @Override
+    public void field(String tag, String name, String value) {
+        add(FIELD_TEXT, 0, new String[]{tag, name, value});
+    }
+
+    @Override
+    public void field(String tag, String name, long value) {
+        add(FIELD_NUMBER, value, new String[]{tag, name});
+    }
+
+    @Override
+    public void money(String tag, String name, long tiyn) {
+        add(FIELD_MONEY, tiyn, new String[]{tag, name});
+    }
+
+    @Override
+    public void beginTable(String name, String... columns) {
+        String[] text = new String[columns.length + 1];
+        text[0] = name;
+        System.arraycopy(columns, 0, text, 1, columns.length);
+        add(BEGIN_TABLE, 0, text);
+    }
+
+    @Override
+    public void beginRow() {
+        add(BEGIN_ROW, 0, null);
+    }
+
+    @Override
+    public void cell(String value) {
+        add(CELL_TEXT, 0, value);
+    }
+
+    @Override
+    public void cell(long value) {
+        add(CELL_NUMBER, value, null);
+    }
+
+    @Override
+    public void moneyCell(long tiyn) {
+        add(CELL_MONEY, tiyn, null);
+    }
+
+    @Override
+    public void endRow() {
+        add(END_ROW, 0, null);
+    }
+
+    @Override
+    public void endTable() {
+        add(END_TABLE, 0, null);
+    }
+
+    @Override
+    public void end() {
+        add(END, 0, null);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    private void add(byte op, long number, Object text) {
+        if (size == maxCalls) {
+            throw new TooLargeException();
+        }
+        if (size == ops.length) {
+            int capacity = (int) Math.min(maxCalls, size * 2L);
+            ops = Arrays.copyOf(ops, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+        }
+        ops[size] = op;
+        numbers[size] = number;
+        texts[size] = text;
+        size++;
+    }
+}
@@ -1,14 +1,64 @@
 package factory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Report interface.
  * Defines the contract for generating different types of reports.
+ * <p>
+ * A report describes its content once, to a {@link ReportSink}; the default
+ * methods route that to the console or to any writer, stream or channel in
+ * any {@link ReportFormat}. Output is buffered and streamed, so a report never
+ * has to be built in memory. None of the methods close the destination.
  */
 public interface Report {
+    /**
+     * Writes the content of the report to a sink, then calls {@link ReportSink#end()}.
+     */
+    void writeReport(ReportSink sink) throws IOException;
+
     /**
      * Generates and displays the report.
      */
-    void generateReport();
+    default void generateReport() {
+        PrintStream console = System.out;
+        generateReport(new OutputStreamWriter(console, console.charset()), ReportFormat.TEXT);
+    }
+
+    /**
+     * Writes the report to a writer.
+     *
+     * @throws UncheckedIOException if the writer fails
+     */
+    default void generateReport(Writer out, ReportFormat format) {
+        try {
+            writeReport(ReportSink.of(out, format));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + getReportType(), e);
+        }
+    }
+
+    /**
+     * Writes the report to a byte stream in UTF-8.
+     */
+    default void generateReport(OutputStream out, ReportFormat format) {
+        generateReport(new OutputStreamWriter(out, StandardCharsets.UTF_8), format);
+    }
+
+    /**
+     * Writes the report to a channel, e.g. a {@link java.nio.channels.FileChannel}, in UTF-8.
+     */
+    default void generateReport(WritableByteChannel out, ReportFormat format) {
+        generateReport(Channels.newWriter(out, StandardCharsets.UTF_8), format);
+    }
 
     /**
      * Returns the type/name of the report.
@@ -16,4 +66,3 @@ public interface Report {
      */
     String getReportType();
 }
-
@@ -1,5 +1,12 @@
 package factory;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
 /**
  * Abstract Creator class for the Factory Method pattern.
  * Defines the factory method interface for creating Report objects.
@@ -15,15 +22,48 @@ public abstract class ReportCreator {
      */
     public abstract Report createReport();
 
+    /**
+     * Factory method for reports that take parameters, e.g. the client a
+     * statement is for. Creators whose reports take none accept only an empty list.
+     *
+     * @param parameters report parameters, in the order the creator documents
+     * @return a new Report instance
+     * @throws IllegalArgumentException if the parameters are not supported
+     */
+    public Report createReport(List<?> parameters) {
+        if (!parameters.isEmpty()) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + " takes no parameters");
+        }
+        return createReport();
+    }
+
     /**
      * Template method that uses the factory method.
      * Demonstrates the common workflow for generating reports.
      * This method remains the same across all subclasses.
      */
     public void generateAndShow() {
+        PrintStream console = System.out;
+        generateTo(new OutputStreamWriter(console, console.charset()), ReportFormat.TEXT);
+    }
+
+    /**
+     * Same workflow as {@link #generateAndShow()}, written to any writer in any format.
+     * The banner line is only written for {@link ReportFormat#TEXT}, so CSV and
+     * JSON output stays machine-readable. The writer is flushed, not closed.
+     */
+    public void generateTo(Writer out, ReportFormat format) {
         Report report = createReport();
-        System.out.println("\n>>> Generating: " + report.getReportType());
-        report.generateReport();
+        try {
+            ReportSink sink = ReportSink.of(out, format);
+            if (format == ReportFormat.TEXT) {
+                sink.out.write(System.lineSeparator() + ">>> Generating: " + report.getReportType()
+                        + System.lineSeparator());
+            }
+            report.writeReport(sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + report.getReportType(), e);
+        }
     }
 
     /**
@@ -1,5 +1,11 @@
 package factory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Factory for creating different types of reports.
  * Implements the Factory Method pattern with proper Creator hierarchy.
@@ -13,6 +19,24 @@ package factory;
  * - Closed for modification: existing code doesn't need changes
  */
 public class ReportFactory {
+    private static final int MAX_CACHED_REPORTS = 256;
+
+    /**
+     * Cached reports in least recently used order, guarded by itself. An
+     * evicted report forgets its recording at once, even if a caller still
+     * holds it, so at most {@value #MAX_CACHED_REPORTS} recordings are kept.
+     */
+    private static final Map<List<Object>, CachedReport> cache =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedReport> eldest) {
+                    if (size() <= MAX_CACHED_REPORTS) {
+                        return false;
+                    }
+                    eldest.getValue().invalidate();
+                    return true;
+                }
+            };
 
     /**
      * Creates a report creator based on the specified user role.
@@ -54,5 +78,66 @@ public class ReportFactory {
         ReportCreator creator = getReportCreator(userRole);
         return creator.createReport();
     }
-}
 
+    /**
+     * Returns a report that is generated once and served from cache until the
+     * bank's state changes, for callers that poll the same report repeatedly.
+     * Reports are cached per role and parameters; concurrent callers share a
+     * single regeneration. See {@link CachedReport} for the rules. Only the
+     * most recently used reports are kept.
+     *
+     * @param userRole   the role of the user requesting the report
+     *                   ("client", "bank", or "audit")
+     * @param parameters non-null report parameters, e.g. a {@link model.Client} for a
+     *                   client statement; compared with {@code equals}
+     * @return the shared cached report for this role and parameters
+     * @throws IllegalArgumentException if the role or parameters are not recognized
+     */
+    public static Report getCachedReport(String userRole, Object... parameters) {
+        List<Object> key = cacheKey(userRole, parameters);
+        synchronized (cache) {
+            CachedReport cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ReportCreator creator = getReportCreator(userRole);
+        List<Object> params = List.of(parameters);
+        String reportType = creator.createReport(params).getReportType();
+        synchronized (cache) {
+            return cache.computeIfAbsent(List.copyOf(key),
+                    k -> new CachedReport(reportType, () -> creator.createReport(params)));
+        }
+    }
+
+    /**
+     * Drops the cached report for a role and parameters, e.g. a closed
+     * client's statement, and the memory its recording holds.
+     */
+    public static void invalidateCachedReport(String userRole, Object... parameters) {
+        CachedReport cached;
+        synchronized (cache) {
+            cached = cache.remove(cacheKey(userRole, parameters));
+        }
+        if (cached != null) {
+            cached.invalidate();
+        }
+    }
+
+    /**
+     * Drops every cached report and the memory its recording holds.
+     */
+    public static void clearCache() {
+        synchronized (cache) {
+            cache.values().forEach(CachedReport::invalidate);
+            cache.clear();
+        }
+    }
+
+    private static List<Object> cacheKey(String userRole, Object... parameters) {
+        List<Object> key = new ArrayList<>(parameters.length + 1);
+        key.add(userRole == null ? "" : userRole.toLowerCase());
+        Collections.addAll(key, parameters);
+        return key;
+    }
+}
@@ -0,0 +1,13 @@
+package factory;
+
+/**
+ * Output formats a {@link Report} can be written in.
+ */
+public enum ReportFormat {
+    /** Human-readable console layout. */
+    TEXT,
+    /** {@code name,value} rows for fields, a header row and data rows per table. */
+    CSV,
+    /** One JSON object: fields as members, tables as arrays of row objects. */
+    JSON
+}
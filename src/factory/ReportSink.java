@@ -0,0 +1,109 @@
+package factory;
+
+import model.Money;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Receives the content of a report piece by piece and writes it in one
+ * {@link ReportFormat} to a buffered {@link Writer}.
+ * <p>
+ * Reports describe their content as a title, labelled fields and tables whose
+ * rows are written one cell at a time, so a table of any size streams
+ * straight to the output without being held in memory. Output goes through a
+ * 64 KB buffer, so the underlying writer sees large chunks rather than one
+ * call per line. Call order: {@link #begin}, any fields and tables, {@link #end}.
+ * <p>
+ * A sink never closes the writer it was given; {@link #end} flushes it.
+ */
+public abstract class ReportSink implements Flushable {
+    static final int BUFFER_SIZE = 1 << 16;
+
+    protected final Writer out;
+
+    protected ReportSink(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Creates a sink for a format over a writer, adding a buffer in front of it.
+     */
+    public static ReportSink of(Writer out, ReportFormat format) {
+        Writer buffered = new BufferedWriter(out, BUFFER_SIZE);
+        return switch (format) {
+            case TEXT -> new TextReportSink(buffered);
+            case CSV -> new CsvReportSink(buffered);
+            case JSON -> new JsonReportSink(buffered);
+        };
+    }
+
+    /**
+     * Starts the report.
+     *
+     * @param reportType machine-friendly name, e.g. {@link Report#getReportType()}
+     * @param heading    title shown to people
+     */
+    public abstract void begin(String reportType, String heading) throws IOException;
+
+    /**
+     * Writes a labelled text value.
+     *
+     * @param tag short marker shown in text output, e.g. {@code "BANK"}; may be null
+     */
+    public abstract void field(String tag, String name, String value) throws IOException;
+
+    /**
+     * Writes a labelled whole number.
+     */
+    public abstract void field(String tag, String name, long value) throws IOException;
+
+    /**
+     * Writes a labelled amount of money.
+     *
+     * @param tiyn amount in tiyn
+     */
+    public abstract void money(String tag, String name, long tiyn) throws IOException;
+
+    /**
+     * Starts a table; follow with rows and {@link #endTable()}.
+     */
+    public abstract void beginTable(String name, String... columns) throws IOException;
+
+    /**
+     * Starts a row; follow with one cell per column and {@link #endRow()}.
+     */
+    public abstract void beginRow() throws IOException;
+
+    public abstract void cell(String value) throws IOException;
+
+    public abstract void cell(long value) throws IOException;
+
+    /**
+     * @param tiyn amount in tiyn
+     */
+    public abstract void moneyCell(long tiyn) throws IOException;
+
+    public abstract void endRow() throws IOException;
+
+    public abstract void endTable() throws IOException;
+
+    /**
+     * Finishes the report and flushes everything written.
+     */
+    public abstract void end() throws IOException;
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Formats money as a plain decimal, e.g. {@code 1500.50}.
+     */
+    protected static String amount(long tiyn) {
+        return Money.format(tiyn);
+    }
+}
@@ -0,0 +1,98 @@
+package factory;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Console layout: a boxed heading, one {@code [TAG] Name: value} line per
+ * field and one indented line per table row.
+ */
+final class TextReportSink extends ReportSink {
+    private static final String RULE = "═".repeat(44);
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private boolean firstCell;
+
+    TextReportSink(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void begin(String reportType, String heading) throws IOException {
+        line("╔" + RULE + "╗");
+        line(String.format("║        %-35s║", heading));
+        line("╚" + RULE + "╝");
+    }
+
+    @Override
+    public void field(String tag, String name, String value) throws IOException {
+        if (tag != null) {
+            out.write('[');
+            out.write(tag);
+            out.write("] ");
+        }
+        out.write(name);
+        out.write(": ");
+        out.write(value);
+        out.write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void field(String tag, String name, long value) throws IOException {
+        field(tag, name, String.format("%,d", value));
+    }
+
+    @Override
+    public void money(String tag, String name, long tiyn) throws IOException {
+        field(tag, name, amount(tiyn) + " ₸");
+    }
+
+    @Override
+    public void beginTable(String name, String... columns) throws IOException {
+        line(name + ":");
+    }
+
+    @Override
+    public void beginRow() throws IOException {
+        out.write("  -");
+        firstCell = true;
+    }
+
+    @Override
+    public void cell(String value) throws IOException {
+        out.write(firstCell ? " " : "  |  ");
+        out.write(value);
+        firstCell = false;
+    }
+
+    @Override
+    public void cell(long value) throws IOException {
+        cell(Long.toString(value));
+    }
+
+    @Override
+    public void moneyCell(long tiyn) throws IOException {
+        cell(amount(tiyn) + " ₸");
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        out.write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void endTable() {
+    }
+
+    @Override
+    public void end() throws IOException {
+        line("═" + RULE + "══");
+        out.write(LINE_SEPARATOR);
+        out.flush();
+    }
+
+    private void line(String text) throws IOException {
+        out.write(text);
+        out.write(LINE_SEPARATOR);
+    }
+}
@@ -1,94 +1,385 @@
 package model;
 
-import decorator.AccountBalanceDecorator;
-import decorator.AccountBonus;
-import decorator.Bonus;
-import decorator.DepositBalanceDecorator;
+import decorator.BonusTiers;
 import observer.BankSystem;
+import observer.TransactionEvent.Operation;
+import persistence.JournalOp;
+import persistence.TransactionJournal;
+
+import java.math.RoundingMode;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents a bank account (savings, deposit, or credit).
  * Manages operations and bonus calculation.
+ * All amounts are in tiyn (see {@link Money}).
+ * <p>
+ * An account is a flyweight view over one row of the {@link AccountStore}:
+ * it carries only its id, while balance, bonus, type, owner and name live in
+ * the store's primitive columns.
+ * <p>
+ * Balance reads are lock-free. A mutation holds the account's striped lock in
+ * the {@link AccountStore} while it checks funds, appends its journal record
+ * and publishes the new balance, so concurrent withdrawals can never drive
+ * the balance negative and the journal lists the account's mutations in the
+ * order they were applied: a withdrawal that relied on a deposit is never
+ * journaled ahead of it. If the record cannot be appended, the balance is left
+ * unchanged and the exception reaches the caller. Waiting for durability
+ * happens after the lock is released, so concurrent writers still share fsyncs.
+ * <p>
+ * The bonus is cached in the store together with its tier. After every balance
+ * change the new balance is checked against the cached tier's bounds, and the
+ * bonus is looked up again only when a threshold has been crossed.
+ * <p>
+ * If the store has a journal attached, each successful mutation is made
+ * durable before observers are notified and the call returns.
+ * <p>
+ * For account types with daily interest configured in the store, interest
+ * owed since the last accrual is credited first whenever the balance is read
+ * or mutated, so every operation sees an up-to-date balance.
  */
 public class Account {
-    private static int nextId = 1;
-    private int accountId;
-    private String clientName;
-    private AccountType accountType;
-    private String accountName;
-    private double balance;
-    private double bonus;
-    private Client client;
-    private BankSystem bank = BankSystem.getInstance();
+    private static final AccountStore store = AccountStore.getInstance();
+    private static final BankSystem bank = BankSystem.getInstance();
+    private static final BonusTiers tiers = BonusTiers.getInstance();
+    private static final IdempotencyCache idempotency = IdempotencyCache.getInstance();
+    private static final TransferResult.Status[] TRANSFER_STATUSES = TransferResult.Status.values();
+
+    private final int accountId;
 
     public Account(Client client, AccountType accountType, String accountName) {
-        accountId = nextId++;
-        this.client = client;
-        this.clientName = client.getName();
-        this.accountType = accountType;
-        this.accountName = accountName;
-        balance = 0;
-        bonus = 1.0;
-        Bonus bonusLogic = new AccountBonus();
-        if (accountType == AccountType.SAVINGS)
-            bonusLogic = new AccountBalanceDecorator(bonusLogic);
-        else if (accountType == AccountType.DEPOSIT)
-            bonusLogic = new DepositBalanceDecorator(bonusLogic);
-
-        double newBonus = bonusLogic.additionalBonus(this);
-        bonus += newBonus;
-    }
-
-    public void deposit(double amount) {
-        String operation = "deposit";
+        accountId = store.open(client, accountType, accountName);
+        recomputeBonus(accountType);
+    }
+
+    /**
+     * Creates a view of an account that already exists in the store.
+     * Use {@link AccountStore#account(int)} to obtain one.
+     */
+    Account(int accountId) {
+        this.accountId = accountId;
+    }
+
+    public void deposit(long amount) {
         if (amount > 0) {
-            balance += amount;
-            bank.balanceChange(clientName, accountName, operation, amount, balance);
+            accrueInterest();
+            TransactionJournal journal = store.getJournal();
+            long newBalance;
+            long lsn;
+            ReentrantLock lock = store.lockFor(accountId);
+            lock.lock();
+            try {
+                newBalance = Money.add(store.getBalance(accountId), amount);
+                lsn = append(journal, JournalOp.DEPOSIT, 0, amount, 0);
+                store.setBalance(accountId, newBalance);
+            } finally {
+                lock.unlock();
+            }
+            awaitDurable(journal, lsn);
+            onBalanceChanged(newBalance);
+            bank.balanceChange(store.getOwnerId(accountId), accountId, Operation.DEPOSIT, amount, newBalance, 0);
         }
     }
 
-    public void withdraw(double amount) {
-        String operation = "withdraw";
+    /**
+     * Withdraws the given amount if the balance covers it.
+     *
+     * @return true if the withdrawal was applied
+     */
+    public boolean withdraw(long amount) {
         if (amount > 0) {
-            if (balance >= amount) {
-                balance -= amount;
-                bank.balanceChange(clientName, accountName, operation, amount, balance);
-            } else {
-                System.out.println("Insufficient funds for withdrawal.");
+            accrueInterest();
+            TransactionJournal journal = store.getJournal();
+            long newBalance;
+            long lsn;
+            ReentrantLock lock = store.lockFor(accountId);
+            lock.lock();
+            try {
+                long current = store.getBalance(accountId);
+                if (current < amount) {
+                    System.out.println("Insufficient funds for withdrawal.");
+                    return false;
+                }
+                newBalance = current - amount;
+                lsn = append(journal, JournalOp.WITHDRAW, 0, amount, 0);
+                store.setBalance(accountId, newBalance);
+            } finally {
+                lock.unlock();
             }
+            awaitDurable(journal, lsn);
+            onBalanceChanged(newBalance);
+            bank.balanceChange(store.getOwnerId(accountId), accountId, Operation.WITHDRAW, amount, newBalance, 0);
+            return true;
         }
+        return false;
     }
 
-    public void pay(double amount) {
-        String operation = "payment";
+    /**
+     * Pays the given amount and credits the account bonus back to the balance.
+     *
+     * @return true if the payment was applied
+     */
+    public boolean pay(long amount) {
         if (amount > 0) {
-            if (balance >= amount) {
-                double bonusAmount = amount * bonus / 100;
-                balance = balance - amount + bonusAmount;
-                bank.balanceChange(clientName, accountName, operation, amount, balance, bonusAmount);
-            } else {
-                System.out.println("Insufficient funds for payment.");
+            accrueInterest();
+            long bonusAmount = Money.percent(amount, store.getBonus(accountId), RoundingMode.HALF_EVEN);
+            TransactionJournal journal = store.getJournal();
+            long newBalance;
+            long lsn;
+            ReentrantLock lock = store.lockFor(accountId);
+            lock.lock();
+            try {
+                long current = store.getBalance(accountId);
+                if (current < amount) {
+                    System.out.println("Insufficient funds for payment.");
+                    return false;
+                }
+                newBalance = current - amount + bonusAmount;
+                lsn = append(journal, JournalOp.PAYMENT, 0, amount, bonusAmount);
+                store.setBalance(accountId, newBalance);
+            } finally {
+                lock.unlock();
+            }
+            awaitDurable(journal, lsn);
+            onBalanceChanged(newBalance);
+            bank.balanceChange(store.getOwnerId(accountId), accountId, Operation.PAYMENT, amount, newBalance, bonusAmount);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Pays at most once per idempotency key: a retry with the same key returns
+     * the first call's outcome without charging again. Keys are scoped to this
+     * account's payments.
+     *
+     * @return true if the payment was applied (now or by the first call)
+     * @throws IllegalArgumentException if the key was used for a different amount
+     */
+    public boolean pay(long amount, String idempotencyKey) {
+        long key = IdempotencyCache.hash(accountId, JournalOp.PAYMENT.code(), idempotencyKey);
+        long fingerprint = IdempotencyCache.fingerprint(amount, 0);
+        long previous = idempotency.begin(key, fingerprint);
+        if (previous != IdempotencyCache.ABSENT) {
+            return previous == 1;
+        }
+        boolean completed = false;
+        try {
+            boolean paid = pay(amount);
+            idempotency.complete(key, fingerprint, paid ? 1 : 0);
+            completed = true;
+            return paid;
+        } finally {
+            if (!completed) {
+                idempotency.abort(key);
+            }
+        }
+    }
+
+    /**
+     * Transfers at most once per idempotency key: a retry with the same key
+     * returns the first call's status, marked as a duplicate, without moving
+     * money again. Keys are scoped to this account's transfers.
+     *
+     * @throws IllegalArgumentException if the key was used for a different
+     *                                  amount or destination
+     */
+    public TransferResult transferTo(Account to, long amount, String idempotencyKey) {
+        long key = IdempotencyCache.hash(accountId, JournalOp.TRANSFER.code(), idempotencyKey);
+        long fingerprint = IdempotencyCache.fingerprint(amount, to.accountId);
+        long previous = idempotency.begin(key, fingerprint);
+        if (previous != IdempotencyCache.ABSENT) {
+            return new TransferResult(TRANSFER_STATUSES[(int) previous], accountId, to.accountId, amount,
+                    getBalance(), to.getBalance(), true);
+        }
+        boolean completed = false;
+        try {
+            TransferResult result = transferTo(to, amount);
+            idempotency.complete(key, fingerprint, result.getStatus().ordinal());
+            completed = true;
+            return result;
+        } finally {
+            if (!completed) {
+                idempotency.abort(key);
+            }
+        }
+    }
+
+    /**
+     * Moves money to another account as one all-or-nothing operation.
+     * <p>
+     * Both accounts' balance locks are taken in stripe order, so opposite
+     * transfers cannot deadlock. Under them the funds and overflow checks are
+     * made, the single TRANSFER record is appended and both balances are
+     * published, so no reader, checkpoint or recovery ever sees half a
+     * transfer or a journal order that differs from the balance order. The
+     * durability wait happens after the locks are released.
+     *
+     * @param amount amount in tiyn
+     * @return the outcome with both balances; nothing is printed
+     */
+    public TransferResult transferTo(Account to, long amount) {
+        int toId = to.accountId;
+        accrueInterest();
+        to.accrueInterest();
+        if (amount <= 0) {
+            return new TransferResult(TransferResult.Status.INVALID_AMOUNT, accountId, toId, amount,
+                    getBalance(), to.getBalance());
+        }
+        if (toId == accountId) {
+            return new TransferResult(TransferResult.Status.SAME_ACCOUNT, accountId, toId, amount,
+                    getBalance(), to.getBalance());
+        }
+        ReentrantLock first = store.lockFor(accountId);
+        ReentrantLock second = store.lockFor(toId);
+        if (store.lockOrder(toId) < store.lockOrder(accountId)) {
+            ReentrantLock swap = first;
+            first = second;
+            second = swap;
+        }
+        TransactionJournal journal = store.getJournal();
+        long fromBalance;
+        long toBalance;
+        long lsn;
+        first.lock();
+        if (second != first) {
+            second.lock();
+        }
+        try {
+            long current = store.getBalance(accountId);
+            long target = store.getBalance(toId);
+            if (current < amount) {
+                return new TransferResult(TransferResult.Status.INSUFFICIENT_FUNDS, accountId, toId, amount,
+                        current, target);
+            }
+            try {
+                toBalance = Money.add(target, amount);
+            } catch (ArithmeticException e) {
+                return new TransferResult(TransferResult.Status.BALANCE_OVERFLOW, accountId, toId, amount,
+                        current, target);
+            }
+            fromBalance = current - amount;
+            lsn = append(journal, JournalOp.TRANSFER, toId, amount, 0);
+            store.setBalance(accountId, fromBalance);
+            store.setBalance(toId, toBalance);
+        } finally {
+            if (second != first) {
+                second.unlock();
             }
+            first.unlock();
         }
+        awaitDurable(journal, lsn);
+        onBalanceChanged(fromBalance);
+        to.onBalanceChanged(toBalance);
+        bank.balanceChange(store.getOwnerId(accountId), accountId, Operation.TRANSFER_OUT, amount, fromBalance, 0);
+        bank.balanceChange(store.getOwnerId(toId), toId, Operation.TRANSFER_IN, amount, toBalance, 0);
+        return new TransferResult(TransferResult.Status.COMPLETED, accountId, toId, amount, fromBalance, toBalance);
+    }
+
+    /**
+     * Credits interest owed under the store's daily accrual, if any.
+     * Cheap when the account's type does not accrue daily or already has today.
+     */
+    private void accrueInterest() {
+        if (store.accrueForUpdate(accountId) != 0) {
+            onBalanceChanged(store.getBalance(accountId));
+        }
+    }
+
+    /**
+     * Keeps the cached bonus in step with the balance.
+     * O(1) and allocation-free unless the balance left the cached tier.
+     */
+    private void onBalanceChanged(long newBalance) {
+        AccountType type = getAccountType();
+        if (!tiers.inTier(type, store.getBonusTier(accountId), newBalance)) {
+            recomputeBonus(type);
+        }
+    }
+
+    /**
+     * Looks up the bonus for the current balance and caches it with its tier.
+     * Repeats if a concurrent update moved the balance out of the tier just
+     * written, so the cache always converges on the latest balance.
+     */
+    private void recomputeBonus(AccountType type) {
+        long balance;
+        int tier;
+        do {
+            balance = store.getBalance(accountId);
+            tier = tiers.tierOf(type, balance);
+            store.setBonus(accountId, tier, tiers.bonusOf(type, tier));
+        } while (!tiers.inTier(type, tier, store.getBalance(accountId)));
+    }
+
+    /**
+     * Appends a mutation of this account to the journal without waiting.
+     * Called with the balance lock held, before the new balance is published.
+     *
+     * @return the position to wait for, 0 if no journal is attached
+     */
+    private long append(TransactionJournal journal, JournalOp op, int counterpartyId, long amount, long bonusAmount) {
+        return journal == null ? 0 : journal.append(op, 0, accountId, counterpartyId, amount, bonusAmount, null);
+    }
+
+    /**
+     * Waits until an appended mutation is durable; called after the lock is released.
+     */
+    private static void awaitDurable(TransactionJournal journal, long lsn) {
+        if (journal != null) {
+            journal.awaitDurable(lsn);
+        }
+    }
+
+    public int getAccountId() {
+        return accountId;
     }
 
     public AccountType getAccountType() {
-        return accountType;
+        return store.getType(accountId);
+    }
+
+    public String getAccountName() {
+        return store.getName(accountId);
     }
 
-    public double getBalance() {
-        return balance;
+    public Client getClient() {
+        return store.getOwner(accountId);
+    }
+
+    private String getClientName() {
+        return getClient().getName();
+    }
+
+    /**
+     * @return current balance in tiyn, including interest accrued up to today
+     */
+    public long getBalance() {
+        if (store.accrue(accountId) != 0) {
+            onBalanceChanged(store.getBalance(accountId));
+        }
+        return store.getBalance(accountId);
     }
 
     public void showAccountInfo() {
         System.out.println("──────────────── Account Info ────────────────");
-        System.out.printf("Client: %s%n", clientName);
+        System.out.printf("Client: %s%n", getClientName());
         System.out.printf("ID: %d%n", accountId);
-        System.out.printf("Type: %s%n", accountType.getDescription());
-        System.out.printf("Name: %s%n", accountName);
-        System.out.printf("Balance: %.2f ₸%n", balance);
-        System.out.printf("Bonus: %.1f%%%n", bonus);
+        System.out.printf("Type: %s%n", getAccountType().getDescription());
+        System.out.printf("Name: %s%n", getAccountName());
+        System.out.printf("Balance: %s ₸%n", Money.format(getBalance()));
+        System.out.printf("Bonus: %d%%%n", store.getBonus(accountId));
         System.out.println("──────────────────────────────────────────────");
 
     }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Account other && other.accountId == accountId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(accountId);
+    }
 }
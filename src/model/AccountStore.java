@@ -0,0 +1,675 @@
+package model;
+
+import decorator.BonusRuleTable;
+import decorator.BonusTiers;
+import persistence.JournalOp;
+import persistence.TransactionJournal;
+import strategy.TimeAwareInterestStrategy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Columnar storage for all accounts in the bank.
+ * <p>
+ * Instead of one heap object per account, balances, bonuses, types, owner ids
+ * and names are kept in parallel primitive arrays indexed by account id.
+ * {@link Account} is a thin flyweight view over one row of this store.
+ * <p>
+ * Columns are split into fixed-size pages that are never moved once allocated,
+ * so rows can be read and written in place while the store keeps growing.
+ * Reads never lock. Balance writers hold the row's striped lock while they
+ * check funds, append the journal record and publish the new balance, so the
+ * journal lists each account's mutations in the order they were applied and a
+ * record that cannot be appended leaves the balance untouched.
+ * <p>
+ * Account ids come from an {@link IdAllocator}, so they are unique but may have
+ * gaps; rows that were never opened have owner id 0.
+ * <p>
+ * When a {@link TransactionJournal} is attached, new clients and accounts are
+ * journaled before they are returned, and {@link Account} journals every
+ * balance mutation before acknowledging it.
+ * <p>
+ * Account types can be given a {@link TimeAwareInterestStrategy}. Each row
+ * then records the day it last accrued interest through, and {@link #accrue}
+ * credits the interest for the days since then when the account is next used.
+ * No periodic sweep over the table is needed.
+ * <p>
+ * Every change to balances, accounts or clients, and to the bank statistics,
+ * bumps a striped state counter after it has been applied. {@link #version()}
+ * only grows, and two equal readings mean nothing changed in between, so
+ * derived results such as reports can be cached against it.
+ */
+public final class AccountStore {
+    static final int PAGE_SHIFT = 16;
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final VarHandle LONG_ELEMENT = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle INT_ELEMENT = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final AccountType[] TYPES = AccountType.values();
+    private static final int ID_BLOCK_SIZE = 1024;
+    private static final int TIER_SHIFT = 16;
+    private static final int BONUS_MASK = (1 << TIER_SHIFT) - 1;
+    private static final int LOCK_STRIPES = 1024;
+    private static final int CARRY_SCALE = 1_000_000;
+    private static final AccountStore instance = new AccountStore();
+
+    private final IdAllocator ids = new IdAllocator(1, Integer.MAX_VALUE, ID_BLOCK_SIZE);
+    private final Object growLock = new Object();
+    private volatile Page[] pages = new Page[0];
+    private volatile Client[] clients = new Client[16];
+    private volatile TransactionJournal journal;
+    private volatile Clock clock = Clock.systemDefaultZone();
+    private volatile TimeAwareInterestStrategy[] dailyInterest = new TimeAwareInterestStrategy[TYPES.length];
+    private final LongAdder version = new LongAdder();
+    private final ReentrantLock[] balanceLocks = new ReentrantLock[LOCK_STRIPES];
+
+    private AccountStore() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            balanceLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * One page of every column. Rows are addressed by {@code accountId & PAGE_MASK}.
+     */
+    private static final class Page {
+        final long[] balances = new long[PAGE_SIZE];
+        final int[] bonuses = new int[PAGE_SIZE]; // tier << TIER_SHIFT | bonus percent
+        final byte[] types = new byte[PAGE_SIZE];
+        final int[] ownerIds = new int[PAGE_SIZE];
+        final int[] accrualDays = new int[PAGE_SIZE]; // epoch day, 0 if accrual has not started
+        final int[] accrualCarries = new int[PAGE_SIZE]; // uncredited interest, in 1/CARRY_SCALE tiyn
+        final String[] names = new String[PAGE_SIZE];
+    }
+
+    public static AccountStore getInstance() {
+        return instance;
+    }
+
+    /**
+     * Opens a new account row with a zero balance.
+     *
+     * @return the new account id
+     */
+    public int open(Client owner, AccountType type, String name) {
+        int accountId = ids.nextInt();
+        int today = today();
+        writeRow(accountId, owner.getClientId(), type, name);
+        INT_ELEMENT.setVolatile(page(accountId).accrualDays, accountId & PAGE_MASK, today);
+        registerClient(owner);
+        TransactionJournal current = journal;
+        if (current != null) {
+            current.recordAccount(accountId, owner.getClientId(), type.ordinal(), name, today);
+        }
+        return accountId;
+    }
+
+    /**
+     * Recreates an account row with a known id from persisted state.
+     * The balance starts at zero and is not journaled again.
+     */
+    public void restoreAccount(int accountId, int ownerId, AccountType type, String name) {
+        ids.resumeFrom(accountId + 1L);
+        writeRow(accountId, ownerId, type, name);
+    }
+
+    /**
+     * Moves the row's accrual day forward to a persisted value; earlier days
+     * are ignored, so restore order does not matter.
+     *
+     * @param epochDay day interest was accrued through, 0 if unknown
+     */
+    public void restoreAccrualDay(int accountId, int epochDay) {
+        int[] days = page(accountId).accrualDays;
+        int row = accountId & PAGE_MASK;
+        int current;
+        do {
+            current = (int) INT_ELEMENT.getVolatile(days, row);
+            if (current >= epochDay) {
+                return;
+            }
+        } while (!INT_ELEMENT.compareAndSet(days, row, current, epochDay));
+    }
+
+    /**
+     * Moves the row's accrual day and interest carry to persisted values, as
+     * journaled by an INTEREST record. Values older than the row's current
+     * day are ignored, so restore order does not matter.
+     *
+     * @param carry uncredited interest in millionths of a tiyn
+     */
+    public void restoreAccrual(int accountId, int epochDay, int carry) {
+        Page page = page(accountId);
+        int row = accountId & PAGE_MASK;
+        ReentrantLock lock = lockFor(accountId);
+        lock.lock();
+        try {
+            if ((int) INT_ELEMENT.getVolatile(page.accrualDays, row) <= epochDay) {
+                INT_ELEMENT.setVolatile(page.accrualDays, row, epochDay);
+                INT_ELEMENT.setVolatile(page.accrualCarries, row, carry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers a newly created client, journaling it if a journal is attached.
+     */
+    public void addClient(Client client) {
+        registerClient(client);
+        TransactionJournal current = journal;
+        if (current != null) {
+            current.recordClient(client.getClientId(), client.getLastname(), client.getFirstname(),
+                    client.getEmail(), client.getPhone());
+        }
+    }
+
+    /**
+     * Registers a client recreated from persisted state without journaling it.
+     */
+    public void restoreClient(Client client) {
+        registerClient(client);
+    }
+
+    /**
+     * Attaches the journal that mutations are written to, or detaches it with null.
+     */
+    public void setJournal(TransactionJournal journal) {
+        this.journal = journal;
+        changed();
+    }
+
+    /**
+     * @return the attached journal, or null if mutations are not persisted
+     */
+    public TransactionJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Replaces the clock that defines "today" for accrual, e.g. with a fixed
+     * or offset clock in simulations.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+        changed();
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return the current epoch day according to the store's clock
+     */
+    public int today() {
+        return (int) LocalDate.now(clock).toEpochDay();
+    }
+
+    /**
+     * Returns the state version: a counter that grows with every applied
+     * change. Read it before deriving a result from the store; if a later
+     * reading is equal, the result is still current.
+     */
+    public long version() {
+        return version.sum();
+    }
+
+    /**
+     * Bumps the state version. Call after the change is visible.
+     */
+    void changed() {
+        version.increment();
+    }
+
+    /**
+     * Makes accounts of a type accrue interest lazily with the given strategy,
+     * or stops it with null. Accrual runs from each account's recorded day, so
+     * the same configuration must be applied again after a restart.
+     * {@link #accruePage} skips such types, so the end-of-day job never
+     * credits them a second time.
+     */
+    public void setDailyInterest(AccountType type, TimeAwareInterestStrategy strategy) {
+        synchronized (growLock) {
+            TimeAwareInterestStrategy[] updated = dailyInterest.clone();
+            updated[type.ordinal()] = strategy;
+            dailyInterest = updated;
+        }
+    }
+
+    /**
+     * @return the day the account's interest was accrued through, 0 if accrual has not started
+     */
+    public int getAccrualDay(int accountId) {
+        return (int) INT_ELEMENT.getVolatile(page(accountId).accrualDays, accountId & PAGE_MASK);
+    }
+
+    /**
+     * @return uncredited interest of the row in millionths of a tiyn
+     */
+    public int getAccrualCarry(int accountId) {
+        return (int) INT_ELEMENT.getVolatile(page(accountId).accrualCarries, accountId & PAGE_MASK);
+    }
+
+    /**
+     * Credits the interest the account earned since its last accrual day, if
+     * its type accrues daily and it comes to at least one tiyn, for a caller
+     * that only reads the balance.
+     * <p>
+     * While the interest rounds to zero nothing is written: the day stays
+     * where it is, so the fraction keeps growing against an unchanged balance
+     * and is credited once it reaches a tiyn. Use {@link #accrueForUpdate}
+     * before changing the balance.
+     *
+     * @return the interest credited in tiyn
+     * @throws ArithmeticException if the balance would overflow
+     */
+    public long accrue(int accountId) {
+        return accrue(accountId, false);
+    }
+
+    /**
+     * Like {@link #accrue(int)}, but always advances the accrual day to today,
+     * for a caller about to change the balance, so the old balance is not
+     * used for days after the change.
+     */
+    public long accrueForUpdate(int accountId) {
+        return accrue(accountId, true);
+    }
+
+    /**
+     * The day is advanced under the row's balance lock, so concurrent callers
+     * credit each day at most once, and the interest is computed from the
+     * balance it is added to. The part below a tiyn is kept in the row's carry
+     * and added to the next accrual. Every advance is journaled as an INTEREST
+     * record carrying the new day and carry, so recovery restores the balance,
+     * the day and the carry. Rows with no recorded day (restored from a journal
+     * written before accrual days existed) start accruing from today.
+     * <p>
+     * The record is not awaited: if it is lost in a crash, recovery returns to
+     * the previous day and carry with the same balance, and the same interest
+     * is credited again on the next accrual. Any balance change after it
+     * waits for its own record, which is later in the journal and so covers
+     * this one too.
+     */
+    private long accrue(int accountId, boolean forUpdate) {
+        Page page = page(accountId);
+        int row = accountId & PAGE_MASK;
+        TimeAwareInterestStrategy strategy = dailyInterest[page.types[row]];
+        if (strategy == null) {
+            return 0;
+        }
+        int today = today();
+        int seen = (int) INT_ELEMENT.getVolatile(page.accrualDays, row);
+        if (seen >= today) {
+            return 0;
+        }
+        if (!forUpdate && seen != 0 && interestOf(strategy, page, row, seen, today)[0] == 0) {
+            return 0;
+        }
+        TransactionJournal current = journal;
+        long interest;
+        ReentrantLock lock = lockFor(accountId);
+        lock.lock();
+        try {
+            int last = (int) INT_ELEMENT.getVolatile(page.accrualDays, row);
+            if (last >= today) {
+                return 0;
+            }
+            long[] accrued = last != 0 ? interestOf(strategy, page, row, last, today) : new long[2];
+            interest = accrued[0];
+            if (interest == 0 && !forUpdate && last != 0) {
+                return 0;
+            }
+            long balance = (long) LONG_ELEMENT.getVolatile(page.balances, row);
+            long newBalance = Money.add(balance, interest);
+            if (current != null) {
+                current.append(JournalOp.INTEREST, 0, accountId, today, interest, accrued[1], null);
+            }
+            INT_ELEMENT.setVolatile(page.accrualDays, row, today);
+            INT_ELEMENT.setVolatile(page.accrualCarries, row, (int) accrued[1]);
+            if (interest != 0) {
+                setBalance(accountId, newBalance);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return interest;
+    }
+
+    /**
+     * Interest of a row over {@code [from, to)} plus its carry.
+     *
+     * @return the whole tiyn to credit and the new carry
+     */
+    private static long[] interestOf(TimeAwareInterestStrategy strategy, Page page, int row, int from, int to) {
+        long balance = (long) LONG_ELEMENT.getVolatile(page.balances, row);
+        double exact = strategy.exactInterestBetween(balance, from, to)
+                + (int) INT_ELEMENT.getVolatile(page.accrualCarries, row) / (double) CARRY_SCALE;
+        long interest = Money.round(exact, RoundingMode.HALF_EVEN);
+        return new long[]{interest, Math.round((exact - interest) * CARRY_SCALE)};
+    }
+
+    /**
+     * Returns the allocator behind account ids, e.g. to persist or resume its high-water mark.
+     */
+    public IdAllocator ids() {
+        return ids;
+    }
+
+    /**
+     * Returns true if the id refers to an opened account.
+     */
+    public boolean exists(int accountId) {
+        if (accountId <= 0) {
+            return false;
+        }
+        Page[] snapshot = pages;
+        int pageIndex = accountId >>> PAGE_SHIFT;
+        return pageIndex < snapshot.length && snapshot[pageIndex] != null
+                && snapshot[pageIndex].ownerIds[accountId & PAGE_MASK] != 0;
+    }
+
+    public long getBalance(int accountId) {
+        return (long) LONG_ELEMENT.getVolatile(page(accountId).balances, accountId & PAGE_MASK);
+    }
+
+    /**
+     * Returns the lock that serializes balance writes to an account. Accounts
+     * share a fixed number of stripes, so two ids may map to the same lock;
+     * code holding two must take them in {@link #lockOrder(int)} order and
+     * only once if they are the same lock.
+     */
+    ReentrantLock lockFor(int accountId) {
+        return balanceLocks[lockOrder(accountId)];
+    }
+
+    /**
+     * Returns the stripe index of an account's balance lock.
+     */
+    int lockOrder(int accountId) {
+        return accountId & (LOCK_STRIPES - 1);
+    }
+
+    /**
+     * Publishes a new balance. The caller holds {@link #lockFor(int)} and has
+     * already appended the mutation's journal record.
+     */
+    void setBalance(int accountId, long balance) {
+        LONG_ELEMENT.setVolatile(page(accountId).balances, accountId & PAGE_MASK, balance);
+        changed();
+    }
+
+    /**
+     * Atomically adds a signed delta to the balance without any checks.
+     * Used when replaying already-validated mutations during restore, before
+     * live operations start; it takes no lock and writes no journal record.
+     *
+     * @return the balance after the update
+     */
+    public long addToBalance(int accountId, long delta) {
+        long balance = (long) LONG_ELEMENT.getAndAdd(page(accountId).balances, accountId & PAGE_MASK, delta) + delta;
+        changed();
+        return balance;
+    }
+
+    /**
+     * Returns the cached bonus percentage.
+     */
+    public int getBonus(int accountId) {
+        return bonusState(accountId) & BONUS_MASK;
+    }
+
+    /**
+     * Returns the bonus tier the cached bonus was computed for.
+     */
+    public int getBonusTier(int accountId) {
+        return bonusState(accountId) >>> TIER_SHIFT;
+    }
+
+    /**
+     * Caches a bonus percentage together with its tier in a single write,
+     * so readers never see a bonus from one tier paired with another tier.
+     */
+    public void setBonus(int accountId, int tier, int bonus) {
+        INT_ELEMENT.setVolatile(page(accountId).bonuses, accountId & PAGE_MASK, (tier << TIER_SHIFT) | bonus);
+    }
+
+    /**
+     * Recomputes the cached bonus of every account in one pass, one page at a
+     * time, using the compiled bonus table's bulk tier lookup. Rows whose balance
+     * moves while the page is processed are looked up again individually.
+     */
+    public void recomputeBonuses() {
+        BonusTiers tiers = BonusTiers.getInstance();
+        BonusRuleTable table = tiers.table();
+        long[] balances = new long[PAGE_SIZE];
+        int[] tierOut = new int[PAGE_SIZE];
+        for (Page page : pages) {
+            if (page == null) {
+                continue;
+            }
+            for (int row = 0; row < PAGE_SIZE; row++) {
+                balances[row] = (long) LONG_ELEMENT.getVolatile(page.balances, row);
+            }
+            table.evaluateTiers(balances, page.types, tierOut);
+            for (int row = 0; row < PAGE_SIZE; row++) {
+                if (page.ownerIds[row] == 0) {
+                    continue;
+                }
+                int type = page.types[row];
+                int tier = tierOut[row];
+                long balance = balances[row];
+                while (true) {
+                    int bonus = BonusTiers.BASE_BONUS + table.valueOf(type, tier);
+                    INT_ELEMENT.setVolatile(page.bonuses, row, (tier << TIER_SHIFT) | bonus);
+                    long current = (long) LONG_ELEMENT.getVolatile(page.balances, row);
+                    if (current == balance) {
+                        break;
+                    }
+                    balance = current;
+                    tier = table.tier(type, balance);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of allocated pages; account ids of page {@code p}
+     *         are {@code p * PAGE_SIZE} to {@code (p + 1) * PAGE_SIZE - 1}
+     */
+    public int pageCount() {
+        return pages.length;
+    }
+
+    /**
+     * Credits interest to every open account of one page in a single pass.
+     * Each credit is computed, journaled (without waiting for durability) and
+     * published under the row's balance lock, like any other mutation, so
+     * concurrent mutations of the same accounts are kept and ordered.
+     * Cached bonuses are not updated; call {@link #recomputeBonuses()} after a
+     * bulk run.
+     * <p>
+     * A credited row's accrual day moves to {@code throughDay} in the same
+     * step, and its INTEREST record carries that day, so recovery and
+     * snapshots keep it. Rows already at or past {@code throughDay} are
+     * skipped: rerunning a period after a crash credits only the rows the
+     * interrupted run had not reached. Rows of types that accrue
+     * {@linkplain #setDailyInterest daily} are skipped too, since the accrual
+     * day is theirs, and so are rows the credit would overflow.
+     *
+     * @param throughDay     epoch day the credited period ends before, e.g. the
+     *                       day after the run date
+     * @param interestByType interest in tiyn for a balance, indexed by account type ordinal
+     * @param idsOut         receives the ids of credited accounts; at least {@link #PAGE_SIZE} long
+     * @param amountsOut     receives the credited amounts, parallel to {@code idsOut}
+     * @return the number of accounts credited
+     */
+    public int accruePage(int pageIndex, int throughDay, LongUnaryOperator[] interestByType,
+                          int[] idsOut, long[] amountsOut) {
+        Page page = pages[pageIndex];
+        if (page == null) {
+            return 0;
+        }
+        int base = pageIndex << PAGE_SHIFT;
+        int credited = 0;
+        TransactionJournal current = journal;
+        TimeAwareInterestStrategy[] daily = dailyInterest;
+        for (int row = 0; row < PAGE_SIZE; row++) {
+            if (page.ownerIds[row] == 0 || daily[page.types[row]] != null
+                    || (int) INT_ELEMENT.getVolatile(page.accrualDays, row) >= throughDay) {
+                continue;
+            }
+            LongUnaryOperator interestOf = interestByType[page.types[row]];
+            if (isZeroInterest(interestOf, (long) LONG_ELEMENT.getVolatile(page.balances, row))) {
+                continue;
+            }
+            int accountId = base | row;
+            ReentrantLock lock = lockFor(accountId);
+            lock.lock();
+            try {
+                if ((int) INT_ELEMENT.getVolatile(page.accrualDays, row) >= throughDay) {
+                    continue;
+                }
+                long balance = (long) LONG_ELEMENT.getVolatile(page.balances, row);
+                long interest;
+                long newBalance;
+                try {
+                    interest = interestOf.applyAsLong(balance);
+                    newBalance = Money.add(balance, interest);
+                } catch (ArithmeticException e) {
+                    System.err.println("Interest not credited to account " + accountId + ": " + e.getMessage());
+                    continue;
+                }
+                if (interest != 0) {
+                    if (current != null) {
+                        current.append(JournalOp.INTEREST, 0, accountId, throughDay, interest, 0, null);
+                    }
+                    INT_ELEMENT.setVolatile(page.accrualDays, row, throughDay);
+                    setBalance(accountId, newBalance);
+                    idsOut[credited] = accountId;
+                    amountsOut[credited] = interest;
+                    credited++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return credited;
+    }
+
+    /**
+     * Unlocked pre-check of {@link #accruePage}; an overflow is left to the
+     * locked pass, which reports it.
+     */
+    private static boolean isZeroInterest(LongUnaryOperator interestOf, long balance) {
+        try {
+            return interestOf.applyAsLong(balance) == 0;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private int bonusState(int accountId) {
+        return (int) INT_ELEMENT.getVolatile(page(accountId).bonuses, accountId & PAGE_MASK);
+    }
+
+    public AccountType getType(int accountId) {
+        return TYPES[page(accountId).types[accountId & PAGE_MASK]];
+    }
+
+    public int getOwnerId(int accountId) {
+        return page(accountId).ownerIds[accountId & PAGE_MASK];
+    }
+
+    public String getName(int accountId) {
+        return page(accountId).names[accountId & PAGE_MASK];
+    }
+
+    public Client getOwner(int accountId) {
+        return getClient(getOwnerId(accountId));
+    }
+
+    /**
+     * Looks up a client that owns at least one account in this store.
+     *
+     * @return the client, or null if unknown
+     */
+    public Client getClient(int clientId) {
+        Client[] snapshot = clients;
+        return clientId < snapshot.length ? snapshot[clientId] : null;
+    }
+
+    /**
+     * Returns a flyweight view of an existing account.
+     *
+     * @throws IllegalArgumentException if no such account has been opened
+     */
+    public Account account(int accountId) {
+        if (!exists(accountId)) {
+            throw new IllegalArgumentException("Unknown account id: " + accountId);
+        }
+        return new Account(accountId);
+    }
+
+    private void writeRow(int accountId, int ownerId, AccountType type, String name) {
+        Page page = ensurePage(accountId >>> PAGE_SHIFT);
+        int row = accountId & PAGE_MASK;
+        page.types[row] = (byte) type.ordinal();
+        page.names[row] = name;
+        page.ownerIds[row] = ownerId;
+        BankStatistics.getInstance().accountOpened(ownerId);
+        changed();
+    }
+
+    private Page page(int accountId) {
+        return pages[accountId >>> PAGE_SHIFT];
+    }
+
+    private Page ensurePage(int pageIndex) {
+        Page[] current = pages;
+        if (pageIndex < current.length && current[pageIndex] != null) {
+            return current[pageIndex];
+        }
+        synchronized (growLock) {
+            current = pages;
+            if (pageIndex >= current.length) {
+                Page[] grown = new Page[Math.max(pageIndex + 1, current.length * 2)];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            if (current[pageIndex] == null) {
+                current[pageIndex] = new Page();
+            }
+            pages = current;
+            return current[pageIndex];
+        }
+    }
+
+    private void registerClient(Client client) {
+        int clientId = client.getClientId();
+        if (getClient(clientId) == client) {
+            return;
+        }
+        synchronized (growLock) {
+            Client[] current = clients;
+            if (clientId >= current.length) {
+                Client[] grown = new Client[Math.max(clientId + 1, current.length * 2)];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            current[clientId] = client;
+            clients = current;
+        }
+        changed();
+    }
+}
@@ -0,0 +1,176 @@
+package model;
+
+import observer.TransactionEvent.Operation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live bank-wide totals, maintained incrementally as operations happen.
+ * <p>
+ * Every counter is a {@link LongAdder}, striped across cells so that
+ * concurrent updates from many threads do not contend on one memory word.
+ * Reading a total sums a handful of cells, so reports cost O(1) in the
+ * number of accounts and clients.
+ * <p>
+ * Account and loan totals describe current state and are rebuilt on restore.
+ * Operation totals count turnover over the bank's history: snapshots store
+ * them and journal replay adds the operations after the snapshot, so they
+ * survive a restart like the state totals. Every update bumps the
+ * {@link AccountStore#version() state version} once applied.
+ */
+public final class BankStatistics {
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final int CLIENT_PAGE_SHIFT = 16; // 65,536 client bits per page
+    private static final int CLIENT_PAGE_MASK = (1 << CLIENT_PAGE_SHIFT) - 1;
+    private static final BankStatistics instance = new BankStatistics();
+
+    private final LongAdder accounts = new LongAdder();
+    private final LongAdder activeClients = new LongAdder();
+    private final LongAdder loans = new LongAdder();
+    private final LongAdder loanPortfolio = new LongAdder();
+    private final LongAdder bonuses = new LongAdder();
+    private final LongAdder[] operationCounts = new LongAdder[OPERATIONS.length];
+    private final LongAdder[] operationAmounts = new LongAdder[OPERATIONS.length];
+    private final Object growLock = new Object();
+    private volatile AtomicLongArray[] clientPages = new AtomicLongArray[0];
+
+    private BankStatistics() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            operationCounts[i] = new LongAdder();
+            operationAmounts[i] = new LongAdder();
+        }
+    }
+
+    public static BankStatistics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Counts a new or restored account. Its owner becomes active with the first one.
+     */
+    public void accountOpened(int ownerId) {
+        accounts.increment();
+        AtomicLongArray page = clientPage(ownerId >>> CLIENT_PAGE_SHIFT);
+        int bit = ownerId & CLIENT_PAGE_MASK;
+        long mask = 1L << bit;
+        long previous = page.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+        if ((previous & mask) == 0) {
+            activeClients.increment();
+        }
+    }
+
+    /**
+     * Adds a newly signed or restored loan to the portfolio.
+     *
+     * @param principal loan amount in tiyn
+     */
+    public void loanIssued(long principal) {
+        loans.increment();
+        loanPortfolio.add(principal);
+        AccountStore.getInstance().changed();
+    }
+
+    /**
+     * Counts one successful balance operation.
+     *
+     * @param amount operation amount in tiyn
+     * @param bonus  bonus credited back by a payment, in tiyn
+     */
+    public void record(Operation operation, long amount, long bonus) {
+        operationCounts[operation.ordinal()].increment();
+        operationAmounts[operation.ordinal()].add(amount);
+        if (bonus != 0) {
+            bonuses.add(bonus);
+        }
+        AccountStore.getInstance().changed();
+    }
+
+    /**
+     * Adds totals restored from a snapshot.
+     *
+     * @param amount total operation amount in tiyn
+     */
+    public void restoreOperation(Operation operation, long count, long amount) {
+        operationCounts[operation.ordinal()].add(count);
+        operationAmounts[operation.ordinal()].add(amount);
+        AccountStore.getInstance().changed();
+    }
+
+    /**
+     * Adds payment bonuses restored from a snapshot, in tiyn.
+     */
+    public void restoreBonuses(long bonus) {
+        bonuses.add(bonus);
+        AccountStore.getInstance().changed();
+    }
+
+    public long getAccounts() {
+        return accounts.sum();
+    }
+
+    /**
+     * @return the number of clients owning at least one account
+     */
+    public long getActiveClients() {
+        return activeClients.sum();
+    }
+
+    public long getLoans() {
+        return loans.sum();
+    }
+
+    /**
+     * @return total principal of signed loans, in tiyn
+     */
+    public long getLoanPortfolio() {
+        return loanPortfolio.sum();
+    }
+
+    public long getCount(Operation operation) {
+        return operationCounts[operation.ordinal()].sum();
+    }
+
+    /**
+     * @return the total amount moved by an operation, in tiyn
+     */
+    public long getAmount(Operation operation) {
+        return operationAmounts[operation.ordinal()].sum();
+    }
+
+    /**
+     * @return payment bonuses credited back, in tiyn
+     */
+    public long getBonuses() {
+        return bonuses.sum();
+    }
+
+    /**
+     * @return money that entered minus money that left the bank;
+     *         transfers between accounts and interest are not flows
+     */
+    public long getNetFlow() {
+        return getAmount(Operation.DEPOSIT) - getAmount(Operation.WITHDRAW)
+                - getAmount(Operation.PAYMENT) + getBonuses();
+    }
+
+    private AtomicLongArray clientPage(int pageIndex) {
+        AtomicLongArray[] current = clientPages;
+        if (pageIndex < current.length && current[pageIndex] != null) {
+            return current[pageIndex];
+        }
+        synchronized (growLock) {
+            current = clientPages;
+            if (pageIndex >= current.length) {
+                AtomicLongArray[] grown = new AtomicLongArray[Math.max(pageIndex + 1, current.length * 2)];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            if (current[pageIndex] == null) {
+                current[pageIndex] = new AtomicLongArray((1 << CLIENT_PAGE_SHIFT) / Long.SIZE);
+            }
+            clientPages = current;
+            return current[pageIndex];
+        }
+    }
+}
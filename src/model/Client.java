@@ -1,17 +1,23 @@
 package model;
 
+import builder.LoanAgreement;
 import observer.BankSystem;
 import observer.Device;
+import observer.QueuedDevice;
+import persistence.TransactionJournal;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Represents a bank client.
- * Manages personal info, accounts, and connected devices.
+ * Manages personal info, accounts, loans and connected devices.
  */
 public class Client {
-    private static int nextId = 1;
+    private static final IdAllocator ids = new IdAllocator(1, Integer.MAX_VALUE, 64);
     private int clientId;
     private String lastname;
     private String firstname;
@@ -19,10 +25,23 @@ public class Client {
     private String email;
     private String phone;
     private List<Account> accounts;
+    private final List<Device> devices = new CopyOnWriteArrayList<>();
+    private final List<LoanAgreement> loans = new CopyOnWriteArrayList<>();
     private BankSystem bank = BankSystem.getInstance();
+    private final Consumer<QueuedDevice> disconnectHandler = this::deviceDisconnected;
 
-    public Client(String lastname, String firstname, String email, String phone) {
-        clientId = nextId++;
+    /**
+     * Creates a client with a new id and registers it with the store,
+     * journaling it if a journal is attached.
+     */
+    public static Client create(String lastname, String firstname, String email, String phone) {
+        Client client = new Client(ids.nextInt(), lastname, firstname, email, phone);
+        AccountStore.getInstance().addClient(client);
+        return client;
+    }
+
+    private Client(int clientId, String lastname, String firstname, String email, String phone) {
+        this.clientId = clientId;
         this.lastname = lastname;
         this.firstname = firstname;
         this.name = lastname + " " + firstname;
@@ -31,21 +50,114 @@ public class Client {
         this.accounts = new ArrayList<>();
     }
 
-    public void addDevice(Device device) {
-        bank.addDevice(device);
+    /**
+     * Recreates a client with a known id from persisted state.
+     * Does not journal the client again; the caller registers it with the store.
+     */
+    public static Client restore(int clientId, String lastname, String firstname, String email, String phone) {
+        ids.resumeFrom(clientId + 1L);
+        return new Client(clientId, lastname, firstname, email, phone);
+    }
+
+    /**
+     * Returns the allocator behind client ids, e.g. to persist or resume its high-water mark.
+     */
+    public static IdAllocator ids() {
+        return ids;
+    }
+
+    /**
+     * Connects a device that will be notified about this client's accounts.
+     */
+    public synchronized void addDevice(Device device) {
+        journalDevice(device, devices.size(), true);
+        devices.add(device);
+        bank.subscribeClient(clientId, device);
+        if (device instanceof QueuedDevice queued) {
+            queued.addDisconnectListener(disconnectHandler);
+        }
+    }
+
+    public synchronized void deleteDevice(Device device) {
+        int index = devices.indexOf(device);
+        if (index < 0) {
+            return;
+        }
+        journalDevice(device, index, false);
+        devices.remove(index);
+        bank.unsubscribeClient(clientId, device);
+        if (device instanceof QueuedDevice queued && !devices.contains(queued)) {
+            queued.removeDisconnectListener(disconnectHandler);
+        }
+    }
+
+    /**
+     * Drops a queued device that disconnected itself on overflow, journaling
+     * the removal like any other.
+     */
+    private synchronized void deviceDisconnected(QueuedDevice device) {
+        while (devices.contains(device)) {
+            deleteDevice(device);
+        }
     }
 
-    public void deleteDevice(Device device) {
-        bank.deleteDevice(device);
+    /**
+     * @return read-only view of the devices this client has connected
+     */
+    public List<Device> getDevices() {
+        return Collections.unmodifiableList(devices);
+    }
+
+    /**
+     * Records a loan agreement signed by this client, journaling it first if
+     * a journal is attached.
+     */
+    public void addLoan(LoanAgreement loan) {
+        TransactionJournal journal = AccountStore.getInstance().getJournal();
+        if (journal != null) {
+            journal.recordLoan(clientId, loan.getAmount(), loan.getInterestRate(), loan.getTermMonths(),
+                    loan.getStartDate().toEpochDay(), loan.isInsuranceRequired(), loan.getAgreementNumber(),
+                    loan.getPurpose());
+        }
+        loans.add(loan);
+        BankStatistics.getInstance().loanIssued(loan.getAmount());
+    }
+
+    /**
+     * @return read-only view of this client's loan agreements
+     */
+    public List<LoanAgreement> getLoans() {
+        return Collections.unmodifiableList(loans);
+    }
+
+    /**
+     * Journals a device change before it is applied, if a journal is attached.
+     */
+    private void journalDevice(Device device, int index, boolean added) {
+        TransactionJournal journal = AccountStore.getInstance().getJournal();
+        if (journal != null) {
+            journal.recordDevice(clientId, device, index, added);
+        }
     }
 
     public void seeDevices() {
         System.out.println(lastname + " " + firstname + " logged in:\n");
-        bank.seeDevices();
+        int id = 1;
+        for (Device device : devices) {
+            System.out.println("Device: " + id++ + " " + device);
+        }
+    }
+
+    /**
+     * @return read-only view of this client's accounts
+     */
+    public List<Account> getAccounts() {
+        return Collections.unmodifiableList(accounts);
     }
 
     public void createAccount(Account account) {
         accounts.add(account);
+        AccountStore.getInstance().changed();
     }
 
     public void deleteAccount(Account account) {
@@ -53,13 +165,34 @@ public class Client {
             System.out.println("No account to delete.");
         } else {
             accounts.remove(account);
+            AccountStore.getInstance().changed();
         }
     }
 
+    public int getClientId() {
+        return clientId;
+    }
+
     public String getName() {
         return name;
     }
 
+    public String getLastname() {
+        return lastname;
+    }
+
+    public String getFirstname() {
+        return firstname;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
     public void showClientInfo() {
         System.out.println("──────────────── Client Info ────────────────");
         System.out.printf("ID: %d%n", clientId);
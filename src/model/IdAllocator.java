@@ -0,0 +1,107 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collision-free numeric id allocator.
+ * <p>
+ * Blocks of consecutive ids are leased from a shared high-water mark into a
+ * fixed set of stripes, and each thread draws ids from the stripe its thread
+ * id maps to, so the shared counter is touched only once per block. The number
+ * of open blocks is bounded by the stripe count rather than by the number of
+ * threads that ever allocated, so short-lived threads (pools, fork/join,
+ * virtual threads) do not leave a trail of half-used blocks. Ids stay nearly
+ * dense: at most one partly used block per stripe is skipped over a restart.
+ * <p>
+ * The high-water mark is the restart point: persist {@link #highWaterMark()}
+ * and pass it to {@link #resumeFrom(long)} after a restart, and no id handed
+ * out before the restart will be reissued.
+ */
+public final class IdAllocator {
+    private final long maxId;
+    private final int blockSize;
+    private final AtomicLong highWater;
+    private final Stripe[] stripes;
+
+    /**
+     * One leased block: ids {@code next} (inclusive) to {@code end} (exclusive).
+     * Guarded by its own monitor, held only for a few instructions.
+     */
+    private static final class Stripe {
+        long next;
+        long end;
+    }
+
+    /**
+     * @param firstId   the first id to hand out
+     * @param maxId     the largest id this allocator may return
+     * @param blockSize how many ids a stripe leases at once
+     */
+    public IdAllocator(long firstId, long maxId, int blockSize) {
+        if (firstId > maxId || blockSize <= 0) {
+            throw new IllegalArgumentException("Invalid id range or block size");
+        }
+        this.maxId = maxId;
+        this.blockSize = blockSize;
+        this.highWater = new AtomicLong(firstId);
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Returns the next id.
+     *
+     * @throws IllegalStateException if the id space is exhausted
+     */
+    public long next() {
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & (stripes.length - 1)];
+        synchronized (stripe) {
+            if (stripe.next == stripe.end) {
+                lease(stripe);
+            }
+            return stripe.next++;
+        }
+    }
+
+    /**
+     * Returns the next id for callers that index by {@code int}.
+     * Only valid when {@code maxId} fits in an int.
+     */
+    public int nextInt() {
+        return (int) next();
+    }
+
+    /**
+     * Returns the first id that has not been leased yet.
+     * Every id returned so far is strictly below this value.
+     */
+    public long highWaterMark() {
+        return highWater.get();
+    }
+
+    /**
+     * Moves the high-water mark forward so ids below {@code nextFreeId} are never
+     * handed out again. Intended for startup, before any thread has allocated.
+     */
+    public void resumeFrom(long nextFreeId) {
+        highWater.accumulateAndGet(nextFreeId, Math::max);
+    }
+
+    private void lease(Stripe stripe) {
+        while (true) {
+            long start = highWater.get();
+            if (start > maxId) {
+                throw new IllegalStateException("Id space exhausted at " + maxId);
+            }
+            long end = start + Math.min(blockSize, maxId - start + 1);
+            if (highWater.compareAndSet(start, end)) {
+                stripe.next = start;
+                stripe.end = end;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, expiring cache of recently used idempotency keys and the results
+ * of the operations they guarded.
+ * <p>
+ * Keys are 64-bit hashes of the caller's key string scoped by account and
+ * operation, so two accounts or a payment and a transfer never share a key.
+ * Each key also stores a fingerprint of the operation's details (amount,
+ * counterparty); reusing a key with different details is rejected rather than
+ * answered with the first call's result. Entries live in striped
+ * open-addressing tables of primitive arrays (32 bytes per entry, no objects).
+ * A key is looked up within a short probe window of its home slot; when the
+ * window has no free slot the entry closest to expiry is evicted, so lookups
+ * stay O(1) and memory stays fixed.
+ * <p>
+ * Because of that eviction, a key is only guaranteed to suppress duplicates
+ * for about {@code min(ttl, capacity / keys per second)}: the default 2^18
+ * keys with a 24 h ttl cover 24 h only below ~3 keys per second, and about
+ * 44 minutes at 100 keys per second. Size the cache with
+ * {@link #forThroughput} (or the {@code banking.idempotency.keysPerSecond}
+ * property) so capacity covers the longest retry horizon at peak rate.
+ * <p>
+ * An operation first {@link #begin(long, long) claims} its key. The first
+ * caller gets {@link #ABSENT} and runs the operation; a concurrent retry with
+ * the same key waits for it and receives the stored result instead of running
+ * again.
+ */
+public final class IdempotencyCache {
+    /** Returned by {@link #begin(long)} when the caller owns the key and must run the operation. */
+    public static final long ABSENT = -1;
+
+    private static final long PENDING = Long.MIN_VALUE;
+    private static final int STRIPES = 64;
+    private static final int PROBE_WINDOW = 16;
+    private static final long WAIT_NANOS = 50_000;
+
+    private static final IdempotencyCache instance = createDefault();
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long ttlNanos;
+
+    /**
+     * One independently locked table. A slot is empty when its expiry is 0.
+     */
+    private static final class Stripe {
+        final long[] keys;
+        final long[] values;
+        final long[] fingerprints;
+        final long[] expiries;
+        final int mask;
+
+        Stripe(int size) {
+            keys = new long[size];
+            values = new long[size];
+            fingerprints = new long[size];
+            expiries = new long[size];
+            mask = size - 1;
+        }
+    }
+
+    /**
+     * @param capacity maximum number of keys kept, rounded up to a power of two
+     * @param ttl      how long a completed key suppresses duplicates
+     */
+    public IdempotencyCache(int capacity, Duration ttl) {
+        if (capacity <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Capacity and ttl must be positive");
+        }
+        int perStripe = Math.max(PROBE_WINDOW, Integer.highestOneBit(Math.max(1, capacity / STRIPES - 1)) << 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Sizes a cache so a key suppresses duplicates for the whole retry horizon
+     * at the given peak rate of new keys; the ttl is the horizon.
+     */
+    public static IdempotencyCache forThroughput(long keysPerSecond, Duration retryHorizon) {
+        if (keysPerSecond <= 0) {
+            throw new IllegalArgumentException("Key rate must be positive: " + keysPerSecond);
+        }
+        // probe windows fill before the tables do, so leave a quarter spare
+        long capacity = keysPerSecond * Math.max(1, retryHorizon.toSeconds()) / 3 * 4;
+        if (capacity > 1 << 30 || capacity < 0) {
+            throw new IllegalArgumentException("Idempotency cache for " + keysPerSecond + " keys/s over "
+                    + retryHorizon + " is too large");
+        }
+        return new IdempotencyCache((int) capacity, retryHorizon);
+    }
+
+    public static IdempotencyCache getInstance() {
+        return instance;
+    }
+
+    private static IdempotencyCache createDefault() {
+        Duration ttl = Duration.ofSeconds(Long.getLong("banking.idempotency.ttlSeconds", 24 * 60 * 60));
+        Long keysPerSecond = Long.getLong("banking.idempotency.keysPerSecond");
+        if (keysPerSecond != null) {
+            return forThroughput(keysPerSecond, ttl);
+        }
+        return new IdempotencyCache(Integer.getInteger("banking.idempotency.capacity", 1 << 18), ttl);
+    }
+
+    /**
+     * Hashes a caller-supplied idempotency key, scoped by account and
+     * operation, to 64 bits (FNV-1a over the scope and the key's UTF-8 bytes
+     * with a final avalanche). Distinct keys collide with probability ~2^-64.
+     *
+     * @param operation code of the guarded operation, e.g. its journal op
+     */
+    public static long hash(int accountId, int operation, String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int shift = 0; shift < 32; shift += 8) {
+            h = (h ^ ((accountId >>> shift) & 0xff)) * 0x100000001b3L;
+        }
+        h = (h ^ (operation & 0xff)) * 0x100000001b3L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return avalanche(h);
+    }
+
+    /**
+     * Condenses the details a retry must repeat exactly, e.g. amount and
+     * destination, into the fingerprint stored with a key.
+     */
+    public static long fingerprint(long amount, int counterpartyId) {
+        return avalanche(amount * 0x9E3779B97F4A7C15L ^ counterpartyId);
+    }
+
+    private static long avalanche(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Claims a key before running the operation it guards.
+     * If another caller is running the same key, waits for its result.
+     *
+     * @param fingerprint the operation's {@linkplain #fingerprint details}
+     * @return {@link #ABSENT} if the caller must run the operation and then call
+     *         {@link #complete} or {@link #abort}; otherwise the stored result (&gt;= 0)
+     * @throws IllegalArgumentException if the key was used for different details
+     */
+    public long begin(long key, long fingerprint) {
+        Stripe stripe = stripe(key);
+        while (true) {
+            synchronized (stripe) {
+                long now = System.nanoTime();
+                int slot = find(stripe, key, now);
+                if (slot < 0) {
+                    insert(stripe, key, PENDING, fingerprint, now);
+                    return ABSENT;
+                }
+                if (stripe.fingerprints[slot] != fingerprint) {
+                    throw new IllegalArgumentException("Idempotency key reused with different details");
+                }
+                if (stripe.values[slot] != PENDING) {
+                    return stripe.values[slot];
+                }
+            }
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Stores the result of a claimed key; retries until expiry get it back.
+     *
+     * @param result a non-negative value encoding the outcome
+     */
+    public void complete(long key, long fingerprint, long result) {
+        if (result < 0) {
+            throw new IllegalArgumentException("Result must be non-negative: " + result);
+        }
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            long now = System.nanoTime();
+            int slot = find(stripe, key, now);
+            if (slot >= 0) {
+                stripe.values[slot] = result;
+                stripe.expiries[slot] = now + ttlNanos;
+            } else {
+                insert(stripe, key, result, fingerprint, now);
+            }
+        }
+    }
+
+    /**
+     * Releases a claimed key without a result, e.g. when the operation threw,
+     * so a retry runs it again. Call it from a {@code finally} block so waiting
+     * retries are released on errors too.
+     */
+    public void abort(long key) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            int slot = find(stripe, key, System.nanoTime());
+            if (slot >= 0) {
+                // expired rather than empty, so probing continues past it
+                stripe.values[slot] = ABSENT;
+                stripe.expiries[slot] = System.nanoTime();
+            }
+        }
+    }
+
+    private Stripe stripe(long key) {
+        return stripes[(int) (key >>> 58)];
+    }
+
+    private static int find(Stripe stripe, long key, long now) {
+        int home = (int) key & stripe.mask;
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            int slot = (home + i) & stripe.mask;
+            long expiry = stripe.expiries[slot];
+            if (expiry == 0) {
+                return -1;
+            }
+            if (stripe.keys[slot] == key && (expiry - now > 0 || stripe.values[slot] == PENDING)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Puts a key into the first empty or expired slot of its window, evicting
+     * the entry nearest to expiry if there is none. Pending keys are never evicted.
+     */
+    private void insert(Stripe stripe, long key, long value, long fingerprint, long now) {
+        int home = (int) key & stripe.mask;
+        int victim = -1;
+        long victimExpiry = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            int slot = (home + i) & stripe.mask;
+            long expiry = stripe.expiries[slot];
+            if (expiry == 0 || (expiry - now <= 0 && stripe.values[slot] != PENDING)) {
+                victim = slot;
+                break;
+            }
+            if (stripe.values[slot] != PENDING && expiry - now < victimExpiry) {
+                victim = slot;
+                victimExpiry = expiry - now;
+            }
+        }
+        if (victim < 0) {
+            throw new IllegalStateException("Too many operations in flight for idempotency cache stripe");
+        }
+        stripe.keys[victim] = key;
+        stripe.values[victim] = value;
+        stripe.fingerprints[victim] = fingerprint;
+        // pending entries get a live expiry too, so they are never taken for empty
+        stripe.expiries[victim] = now + ttlNanos;
+    }
+}
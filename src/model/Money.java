@@ -0,0 +1,191 @@
+package model;
+
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic.
+ * Amounts are stored as a primitive {@code long} number of tiyn
+ * (1 ₸ = 100 tiyn), so the hot path never allocates or drifts on rounding.
+ * Every operation that can lose precision takes an explicit {@link RoundingMode}.
+ */
+public final class Money {
+    public static final long TIYN_PER_TENGE = 100;
+    private static final long PERCENT = 100;
+    private static final long BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    /**
+     * Converts whole tenge to tiyn.
+     *
+     * @param tenge amount in tenge
+     * @return amount in tiyn
+     * @throws ArithmeticException if the result overflows
+     */
+    public static long ofTenge(long tenge) {
+        return Math.multiplyExact(tenge, TIYN_PER_TENGE);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Returns {@code amount * percent / 100}.
+     */
+    public static long percent(long amount, long percent, RoundingMode mode) {
+        return multiply(amount, percent, PERCENT, mode);
+    }
+
+    /**
+     * Returns {@code amount * basisPoints / 10000}, e.g. 300 bp for 3%.
+     */
+    public static long applyBasisPoints(long amount, long basisPoints, RoundingMode mode) {
+        return multiply(amount, basisPoints, BASIS_POINTS, mode);
+    }
+
+    /**
+     * Returns {@code amount * numerator / denominator} rounded with the given mode.
+     *
+     * @throws ArithmeticException if the intermediate product overflows
+     */
+    public static long multiply(long amount, long numerator, long denominator, RoundingMode mode) {
+        return divide(Math.multiplyExact(amount, numerator), denominator, mode);
+    }
+
+    /**
+     * Integer division with an explicit rounding mode.
+     *
+     * @throws ArithmeticException if the divisor is zero, or if the mode is
+     *                             {@link RoundingMode#UNNECESSARY} and the result is inexact
+     */
+    public static long divide(long dividend, long divisor, RoundingMode mode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        long signum = ((dividend ^ divisor) >> 63) | 1;
+        boolean awayFromZero = switch (mode) {
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+            case DOWN -> false;
+            case UP -> true;
+            case FLOOR -> signum < 0;
+            case CEILING -> signum > 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                long absRemainder = Math.abs(remainder);
+                int cmp = Long.compare(absRemainder, Math.abs(divisor) - absRemainder);
+                if (cmp != 0) {
+                    yield cmp > 0;
+                }
+                yield mode == RoundingMode.HALF_UP
+                        || (mode == RoundingMode.HALF_EVEN && (quotient & 1) != 0);
+            }
+        };
+        return awayFromZero ? quotient + signum : quotient;
+    }
+
+    /**
+     * Rounds a floating-point tiyn value (e.g. the result of an annuity formula)
+     * to a whole number of tiyn.
+     *
+     * @throws ArithmeticException if the value is not finite or out of range
+     */
+    public static long round(double tiyn, RoundingMode mode) {
+        double rounded = switch (mode) {
+            case UNNECESSARY -> {
+                if (tiyn != Math.rint(tiyn)) {
+                    throw new ArithmeticException("Rounding necessary");
+                }
+                yield tiyn;
+            }
+            case DOWN -> tiyn < 0 ? Math.ceil(tiyn) : Math.floor(tiyn);
+            case UP -> tiyn < 0 ? Math.floor(tiyn) : Math.ceil(tiyn);
+            case FLOOR -> Math.floor(tiyn);
+            case CEILING -> Math.ceil(tiyn);
+            case HALF_UP -> Math.copySign(Math.floor(Math.abs(tiyn) + 0.5), tiyn);
+            case HALF_DOWN -> Math.copySign(Math.ceil(Math.abs(tiyn) - 0.5), tiyn);
+            case HALF_EVEN -> Math.rint(tiyn);
+        };
+        if (Double.isNaN(rounded) || rounded >= 0x1p63 || rounded < -0x1p63) {
+            throw new ArithmeticException("Amount out of range: " + tiyn);
+        }
+        return (long) rounded;
+    }
+
+    /**
+     * Parses a plain decimal tenge string with at most two fraction digits,
+     * e.g. {@code "15000.5" -> 1500050}. The inverse of {@link #format(long)}.
+     *
+     * @throws NumberFormatException if the text is not such a number or overflows
+     */
+    public static long parse(CharSequence text) {
+        int length = text.length();
+        int at = 0;
+        boolean negative = length > 0 && text.charAt(0) == '-';
+        if (negative) {
+            at++;
+        }
+        long whole = 0;
+        int digits = 0;
+        for (; at < length && text.charAt(at) != '.'; at++, digits++) {
+            int digit = Character.digit(text.charAt(at), 10);
+            if (digit < 0 || whole > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("Invalid amount: " + text);
+            }
+            whole = whole * 10 + digit;
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (at < length) {
+            for (at++; at < length; at++, fractionDigits++) {
+                int digit = Character.digit(text.charAt(at), 10);
+                if (digit < 0 || fractionDigits == 2) {
+                    throw new NumberFormatException("Invalid amount: " + text);
+                }
+                fraction = fraction * 10 + digit;
+            }
+        }
+        if (digits == 0 && fractionDigits == 0) {
+            throw new NumberFormatException("Invalid amount: " + text);
+        }
+        try {
+            long tiyn = Math.addExact(ofTenge(whole), fractionDigits == 1 ? fraction * 10 : fraction);
+            return negative ? -tiyn : tiyn;
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    /**
+     * Formats tiyn as a plain decimal tenge string, e.g. {@code 1500050 -> "15000.50"}.
+     */
+    public static String format(long tiyn) {
+        StringBuilder sb = new StringBuilder(24);
+        appendTo(sb, tiyn);
+        return sb.toString();
+    }
+
+    /**
+     * Appends tiyn as a plain decimal tenge string without intermediate allocation.
+     */
+    public static StringBuilder appendTo(StringBuilder sb, long tiyn) {
+        long whole = tiyn / TIYN_PER_TENGE;
+        long fraction = Math.abs(tiyn % TIYN_PER_TENGE);
+        if (tiyn < 0) {
+            sb.append('-');
+            whole = -whole;
+        }
+        sb.append(whole).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+}
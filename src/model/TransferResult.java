@@ -0,0 +1,82 @@
+package model;
+
+/**
+ * Outcome of {@link Account#transferTo(Account, long)}.
+ * Balances are in tiyn and reflect the state right after the transfer.
+ */
+public final class TransferResult {
+
+    public enum Status {
+        COMPLETED,
+        INSUFFICIENT_FUNDS,
+        INVALID_AMOUNT,
+        SAME_ACCOUNT,
+        /** The credit would overflow the destination balance; nothing was debited. */
+        BALANCE_OVERFLOW
+    }
+
+    private final Status status;
+    private final int fromAccountId;
+    private final int toAccountId;
+    private final long amount;
+    private final long fromBalance;
+    private final long toBalance;
+    private final boolean duplicate;
+
+    TransferResult(Status status, int fromAccountId, int toAccountId, long amount, long fromBalance, long toBalance) {
+        this(status, fromAccountId, toAccountId, amount, fromBalance, toBalance, false);
+    }
+
+    TransferResult(Status status, int fromAccountId, int toAccountId, long amount, long fromBalance, long toBalance,
+                   boolean duplicate) {
+        this.duplicate = duplicate;
+        this.status = status;
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.fromBalance = fromBalance;
+        this.toBalance = toBalance;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+
+    /**
+     * @return true if this is the stored outcome of an earlier call with the
+     *         same idempotency key; nothing was moved and balances are current
+     */
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    public int getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public int getToAccountId() {
+        return toAccountId;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public long getFromBalance() {
+        return fromBalance;
+    }
+
+    public long getToBalance() {
+        return toBalance;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Transfer %d -> %d of %s ₸: %s%s", fromAccountId, toAccountId, Money.format(amount), status,
+                duplicate ? " (duplicate)" : "");
+    }
+}
@@ -1,31 +1,146 @@
 package observer;
 
-import java.util.ArrayList;
+import model.BankStatistics;
+
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Concrete subject.
- * Manages all connected devices and broadcasts account updates.
+ * Manages all connected devices. Bank-wide messages go to every device;
+ * balance changes go only to the devices subscribed to the client or the
+ * account, looked up in concurrent subscription indexes so subscribing and
+ * unsubscribing is safe while notifications are being delivered. A device
+ * stays registered for bank-wide messages until its last subscription (or
+ * its {@link #addDevice} registration) is removed.
+ * <p>
+ * By default devices are notified on the caller's thread. After
+ * {@link #startAsyncDispatch(int)} notifications are handed to a ring buffer
+ * and delivered by a background thread, so balance updates do not wait for
+ * device I/O.
  */
 public class BankSystem implements NotificationSystem {
-    private static BankSystem instance;
-    List<Device> devices = new ArrayList<>();
+    private static final BankSystem instance = new BankSystem();
+    private static final List<Device> NO_DEVICES = List.of();
+
+    final CopyOnWriteArrayList<Device> devices = new CopyOnWriteArrayList<>();
+    private final Map<Integer, CopyOnWriteArrayList<Device>> clientSubscriptions = new ConcurrentHashMap<>();
+    private final Map<Integer, CopyOnWriteArrayList<Device>> accountSubscriptions = new ConcurrentHashMap<>();
+    private final Set<Device> registered = ConcurrentHashMap.newKeySet();
+    private final Map<Device, Integer> subscriptionCounts = new ConcurrentHashMap<>();
+    private final BankStatistics statistics = BankStatistics.getInstance();
+    private final ThreadLocal<TransactionEvent> localEvent = ThreadLocal.withInitial(TransactionEvent::new);
+    private volatile NotificationRing ring;
+    private volatile DeliveryBackend backend = new SequentialDelivery();
 
     public static BankSystem getInstance() {
-        if (instance == null) {
-            instance = new BankSystem();
-        }
         return instance;
     }
 
     @Override
     public void addDevice(Device device) {
-        devices.add(device);
+        if (registered.add(device)) {
+            retain(device);
+        }
     }
 
+    /**
+     * Removes the device everywhere: its registration and every subscription.
+     */
     @Override
     public void deleteDevice(Device device) {
-        devices.remove(device);
+        registered.remove(device);
+        removeEverywhere(clientSubscriptions, device);
+        removeEverywhere(accountSubscriptions, device);
+        subscriptionCounts.compute(device, (d, count) -> {
+            devices.remove(d);
+            return null;
+        });
+    }
+
+    /**
+     * Subscribes a device to balance changes on every account of a client.
+     * The device also receives bank-wide messages.
+     */
+    public void subscribeClient(int clientId, Device device) {
+        subscribe(clientSubscriptions, clientId, device);
+    }
+
+    public void unsubscribeClient(int clientId, Device device) {
+        unsubscribe(clientSubscriptions, clientId, device);
+    }
+
+    /**
+     * Subscribes a device to balance changes on a single account.
+     * The device also receives bank-wide messages.
+     */
+    public void subscribeAccount(int accountId, Device device) {
+        subscribe(accountSubscriptions, accountId, device);
+    }
+
+    public void unsubscribeAccount(int accountId, Device device) {
+        unsubscribe(accountSubscriptions, accountId, device);
+    }
+
+    private void subscribe(Map<Integer, CopyOnWriteArrayList<Device>> index, int key, Device device) {
+        boolean[] added = new boolean[1];
+        index.compute(key, (k, subscribers) -> {
+            if (subscribers == null) {
+                subscribers = new CopyOnWriteArrayList<>();
+            }
+            added[0] = subscribers.addIfAbsent(device);
+            return subscribers;
+        });
+        if (added[0]) {
+            retain(device);
+        }
+    }
+
+    /**
+     * Drops one subscription. Empty lists are removed from the index, and the
+     * device leaves {@code devices} only when nothing else holds it there.
+     */
+    private void unsubscribe(Map<Integer, CopyOnWriteArrayList<Device>> index, int key, Device device) {
+        boolean[] removed = new boolean[1];
+        index.computeIfPresent(key, (k, subscribers) -> {
+            removed[0] = subscribers.remove(device);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        if (removed[0]) {
+            release(device);
+        }
+    }
+
+    private static void removeEverywhere(Map<Integer, CopyOnWriteArrayList<Device>> index, Device device) {
+        for (Integer key : index.keySet()) {
+            index.computeIfPresent(key, (k, subscribers) -> {
+                subscribers.remove(device);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+
+    /**
+     * Counts one more holder of the device, registering it on the first.
+     */
+    private void retain(Device device) {
+        subscriptionCounts.compute(device, (d, count) -> {
+            devices.addIfAbsent(d);
+            return count == null ? 1 : count + 1;
+        });
+    }
+
+    private void release(Device device) {
+        subscriptionCounts.computeIfPresent(device, (d, count) -> {
+            if (count > 1) {
+                return count - 1;
+            }
+            devices.remove(d);
+            return null;
+        });
     }
 
     @Override
@@ -38,30 +153,127 @@ public class BankSystem implements NotificationSystem {
 
     @Override
     public void notifyObservers(String message) {
-        for (Device o : devices) {
-            o.update(message);
+        NotificationRing current = ring;
+        if (current != null) {
+            NotificationRing.Lane lane = current.claim();
+            try {
+                lane.slot().message = message;
+            } finally {
+                current.publish(lane);
+            }
+            return;
         }
+        backend.broadcast(message, devices);
     }
 
     /**
-     * Notifies all devices about a transaction without bonus info.
+     * Chooses how devices are called, e.g. {@link VirtualThreadDelivery} for
+     * many devices with blocking I/O. Defaults to {@link SequentialDelivery}.
      */
-    public void balanceChange(String clientName, String accountName, String operation, double amount, double balance) {
-        String message = String.format(
-                "Client: %s | Account: %s | Operation: %s | Amount: %.2f ₸ | Balance left: %.2f ₸",
-                clientName, accountName, operation, amount, balance
-        );
-        notifyObservers(message);
+    public void setDeliveryBackend(DeliveryBackend backend) {
+        if (backend == null) {
+            throw new IllegalArgumentException("Delivery backend cannot be null");
+        }
+        this.backend = backend;
+    }
+
+    /**
+     * Switches to asynchronous delivery through a ring buffer of the given total
+     * size, split into per-publisher lanes. A publisher only blocks when devices
+     * fall a lane's worth of notifications behind.
+     */
+    public synchronized void startAsyncDispatch(int capacity) {
+        if (ring != null) {
+            throw new IllegalStateException("Async dispatch already started");
+        }
+        ring = new NotificationRing(capacity, this::deliver);
     }
 
     /**
-     * Notifies all devices about a transaction with bonus applied(only for payments).
+     * Delivers pending notifications and switches back to synchronous delivery.
+     * Call once publishers are quiet; a notification published concurrently
+     * with the switch may be lost.
      */
-    public void balanceChange(String clientName, String accountName, String operation, double amount, double balance, double bonusAmount) {
-        String message = String.format(
-                "Client: %s | Account: %s | Operation: %s | Amount: %.2f ₸ | Bonus: +%.2f ₸ | Balance left: %.2f ₸",
-                clientName, accountName, operation, amount, bonusAmount, balance
-        );
-        notifyObservers(message);
+    public synchronized void stopAsyncDispatch() {
+        NotificationRing current = ring;
+        if (current != null) {
+            ring = null;
+            current.close();
+        }
+    }
+
+    /**
+     * Blocks until every notification published so far has been delivered.
+     * Returns immediately in synchronous mode.
+     */
+    public void awaitDelivery() {
+        NotificationRing current = ring;
+        if (current != null) {
+            current.awaitDelivery();
+        }
+    }
+
+    /**
+     * Publishes a balance change. Amounts are in tiyn; {@code bonus} is the
+     * amount credited back by a payment, 0 otherwise.
+     * <p>
+     * Nothing is formatted here: the event is written into a reused object
+     * (a ring slot in async mode, a per-thread event otherwise) and rendered
+     * only by devices that want text. The change is counted in
+     * {@link BankStatistics} first, whether or not anyone is subscribed.
+     */
+    public void balanceChange(int clientId, int accountId, TransactionEvent.Operation operation,
+                              long amount, long balance, long bonus) {
+        statistics.record(operation, amount, bonus);
+        NotificationRing current = ring;
+        if (current == null) {
+            List<Device> clientDevices = subscribers(clientSubscriptions, clientId);
+            List<Device> accountDevices = subscribers(accountSubscriptions, accountId);
+            if (!clientDevices.isEmpty() || !accountDevices.isEmpty()) {
+                TransactionEvent event = localEvent.get().set(clientId, accountId, operation, amount, balance, bonus);
+                backend.deliver(event, clientDevices, accountDevices);
+            }
+            return;
+        }
+        NotificationRing.Lane lane = current.claim();
+        try {
+            lane.slot().event.set(clientId, accountId, operation, amount, balance, bonus);
+        } finally {
+            current.publish(lane);
+        }
+    }
+
+    @Override
+    public void notifyTransaction(TransactionEvent event) {
+        NotificationRing current = ring;
+        if (current == null) {
+            backend.deliver(event, subscribers(clientSubscriptions, event.getClientId()),
+                    subscribers(accountSubscriptions, event.getAccountId()));
+            return;
+        }
+        NotificationRing.Lane lane = current.claim();
+        try {
+            lane.slot().event.set(event);
+        } finally {
+            current.publish(lane);
+        }
+    }
+
+    /**
+     * Delivers a notification taken from the ring on the dispatch thread.
+     */
+    private void deliver(Notification notification) {
+        if (notification.message != null) {
+            backend.broadcast(notification.message, devices);
+            return;
+        }
+        TransactionEvent event = notification.event;
+        backend.deliver(event, subscribers(clientSubscriptions, event.getClientId()),
+                subscribers(accountSubscriptions, event.getAccountId()));
+    }
+
+    private static List<Device> subscribers(Map<Integer, CopyOnWriteArrayList<Device>> index, int key) {
+        List<Device> subscribers = index.get(key);
+        return subscribers != null ? subscribers : NO_DEVICES;
     }
 }
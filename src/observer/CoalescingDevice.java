@@ -0,0 +1,204 @@
+package observer;
+
+import model.Money;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorator that buffers balance changes for a device and delivers one digest
+ * per window instead of one message per transaction.
+ * <p>
+ * A window closes after {@code maxEvents} events or {@code window} time after
+ * its first event, whichever comes first. Time windows share one daemon
+ * scheduler thread. A window holding a single event is delivered as the usual
+ * message, and every policy reports the latest balance exactly. Bank-wide
+ * messages flush the pending digest first so ordering is kept.
+ */
+public class CoalescingDevice implements Device {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "notification-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final TransactionEvent.Operation[] OPERATIONS = TransactionEvent.Operation.values();
+
+    private final Device delegate;
+    private final CoalescingPolicy policy;
+    private final long windowNanos;
+    private final int maxEvents;
+    private final Object deliveryLock = new Object();
+
+    private final Map<Integer, AccountDigest> digests = new LinkedHashMap<>();
+    private final List<String> lines = new ArrayList<>();
+    private TransactionEvent first;
+    private int events;
+    private ScheduledFuture<?> timer;
+
+    /**
+     * Running totals for one account within the current window.
+     */
+    private static final class AccountDigest {
+        final TransactionEvent last = new TransactionEvent();
+        final int[] counts = new int[OPERATIONS.length];
+        final long[] amounts = new long[OPERATIONS.length];
+        long bonus;
+        int events;
+    }
+
+    /**
+     * @param window    time after the first buffered event to deliver the digest, or zero for none
+     * @param maxEvents number of events that closes a window, or 0 for no limit
+     */
+    public CoalescingDevice(Device delegate, CoalescingPolicy policy, Duration window, int maxEvents) {
+        if (delegate == null || policy == null) {
+            throw new IllegalArgumentException("Device and policy cannot be null");
+        }
+        if (window.isNegative() || maxEvents < 0 || (window.isZero() && maxEvents == 0)) {
+            throw new IllegalArgumentException("A time window or an event limit is required");
+        }
+        this.delegate = delegate;
+        this.policy = policy;
+        this.windowNanos = window.toNanos();
+        this.maxEvents = maxEvents;
+    }
+
+    @Override
+    public void onTransaction(TransactionEvent event) {
+        boolean full;
+        synchronized (this) {
+            add(event);
+            full = maxEvents > 0 && events >= maxEvents;
+            if (events == 1 && !full && windowNanos > 0) {
+                timer = SCHEDULER.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    @Override
+    public void update(String message) {
+        synchronized (deliveryLock) {
+            flush();
+            delegate.update(message);
+        }
+    }
+
+    /**
+     * Delivers the pending digest now, if any.
+     */
+    public void flush() {
+        synchronized (deliveryLock) {
+            String digest;
+            synchronized (this) {
+                digest = drain();
+            }
+            if (digest != null) {
+                delegate.update(digest);
+            }
+        }
+    }
+
+    private void add(TransactionEvent event) {
+        events++;
+        if (events == 1) {
+            first = event.copy();
+        }
+        switch (policy) {
+            case EVERY_EVENT -> lines.add(event.render());
+            case LAST_BALANCE, SUM_PER_OPERATION -> {
+                AccountDigest digest = digests.computeIfAbsent(event.getAccountId(), id -> new AccountDigest());
+                digest.last.set(event);
+                digest.events++;
+                int op = event.getOperation().ordinal();
+                digest.counts[op]++;
+                digest.amounts[op] += event.getAmount();
+                digest.bonus += event.getBonus();
+            }
+        }
+    }
+
+    private String drain() {
+        if (events == 0) {
+            return null;
+        }
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+        String digest = events == 1 ? first.render() : render();
+        events = 0;
+        first = null;
+        lines.clear();
+        digests.clear();
+        return digest;
+    }
+
+    private String render() {
+        StringBuilder sb = new StringBuilder(64 * Math.max(lines.size(), digests.size()) + 48);
+        sb.append("Digest of ").append(events).append(" transactions:");
+        if (policy == CoalescingPolicy.EVERY_EVENT) {
+            for (String line : lines) {
+                sb.append('\n').append(line);
+            }
+            return sb.toString();
+        }
+        for (AccountDigest digest : digests.values()) {
+            TransactionEvent last = digest.last;
+            sb.append("\nClient: ").append(last.getClientName())
+                    .append(" | Account: ").append(last.getAccountName());
+            if (policy == CoalescingPolicy.SUM_PER_OPERATION) {
+                for (TransactionEvent.Operation operation : OPERATIONS) {
+                    int op = operation.ordinal();
+                    if (digest.counts[op] > 0) {
+                        sb.append(" | ").append(operation.getLabel()).append(" ×").append(digest.counts[op]).append(": ");
+                        Money.appendTo(sb, digest.amounts[op]).append(" ₸");
+                    }
+                }
+                if (digest.bonus != 0) {
+                    Money.appendTo(sb.append(" | Bonus: +"), digest.bonus).append(" ₸");
+                }
+            } else {
+                sb.append(" | Operations: ").append(digest.events);
+            }
+            Money.appendTo(sb.append(" | Balance left: "), last.getBalance()).append(" ₸");
+        }
+        return sb.toString();
+    }
+
+    public Device getDelegate() {
+        return delegate;
+    }
+
+    public CoalescingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return time after the first buffered event to deliver the digest, zero for none
+     */
+    public Duration getWindow() {
+        return Duration.ofNanos(windowNanos);
+    }
+
+    /**
+     * @return number of events that closes a window, 0 for no limit
+     */
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+
+    @Override
+    public String toString() {
+        return delegate + " (" + policy + " digest)";
+    }
+}
@@ -0,0 +1,14 @@
+package observer;
+
+/**
+ * How a {@link CoalescingDevice} folds the balance changes of one window
+ * into a digest.
+ */
+public enum CoalescingPolicy {
+    /** One line per event, delivered together. */
+    EVERY_EVENT,
+    /** One line per account with its latest balance. */
+    LAST_BALANCE,
+    /** One line per account with count and total per operation, plus the latest balance. */
+    SUM_PER_OPERATION
+}
@@ -0,0 +1,22 @@
+package observer;
+
+import java.util.List;
+
+/**
+ * Strategy BankSystem uses to hand notifications to devices.
+ * The event is reused once a call returns, so implementations either finish
+ * every device call first or hand devices a {@linkplain TransactionEvent#copy() copy}.
+ */
+public interface DeliveryBackend {
+
+    /**
+     * Sends a bank-wide message to every device.
+     */
+    void broadcast(String message, List<Device> devices);
+
+    /**
+     * Sends an event to the client's subscribers and to account subscribers
+     * that are not already among them.
+     */
+    void deliver(TransactionEvent event, List<Device> clientDevices, List<Device> accountDevices);
+}
@@ -6,4 +6,12 @@ package observer;
  */
 public interface Device {
     void update(String message);
+
+    /**
+     * Receives a balance change. The event is reused after this call returns.
+     * By default it is rendered to the standard text and passed to {@link #update}.
+     */
+    default void onTransaction(TransactionEvent event) {
+        update(event.render());
+    }
 }
@@ -0,0 +1,79 @@
+package observer;
+
+import model.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Notification text template compiled once into literal parts and fields.
+ * <p>
+ * Placeholders: {client}, {account}, {operation}, {amount}, {bonus}, {balance}.
+ * Amounts are appended straight from tiyn, so rendering parses nothing and
+ * creates no intermediate strings.
+ */
+public final class MessageTemplate {
+
+    private enum Field {
+        CLIENT, ACCOUNT, OPERATION, AMOUNT, BONUS, BALANCE
+    }
+
+    private final String[] literals;
+    private final Field[] fields;
+
+    private MessageTemplate(String[] literals, Field[] fields) {
+        this.literals = literals;
+        this.fields = fields;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the pattern has an unknown or unclosed placeholder
+     */
+    public static MessageTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Field> fields = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = pattern.indexOf('{', from)) >= 0) {
+            int close = pattern.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template: " + pattern);
+            }
+            literals.add(pattern.substring(from, open));
+            fields.add(field(pattern.substring(open + 1, close)));
+            from = close + 1;
+        }
+        literals.add(pattern.substring(from));
+        return new MessageTemplate(literals.toArray(new String[0]), fields.toArray(new Field[0]));
+    }
+
+    /**
+     * Appends the rendered event to {@code sb}.
+     */
+    public StringBuilder appendTo(StringBuilder sb, TransactionEvent event) {
+        for (int i = 0; i < fields.length; i++) {
+            sb.append(literals[i]);
+            switch (fields[i]) {
+                case CLIENT -> sb.append(event.getClientName());
+                case ACCOUNT -> sb.append(event.getAccountName());
+                case OPERATION -> sb.append(event.getOperation().getLabel());
+                case AMOUNT -> Money.appendTo(sb, event.getAmount());
+                case BONUS -> Money.appendTo(sb, event.getBonus());
+                case BALANCE -> Money.appendTo(sb, event.getBalance());
+            }
+        }
+        return sb.append(literals[fields.length]);
+    }
+
+    private static Field field(String name) {
+        return switch (name) {
+            case "client" -> Field.CLIENT;
+            case "account" -> Field.ACCOUNT;
+            case "operation" -> Field.OPERATION;
+            case "amount" -> Field.AMOUNT;
+            case "bonus" -> Field.BONUS;
+            case "balance" -> Field.BALANCE;
+            default -> throw new IllegalArgumentException("Unknown placeholder: {" + name + "}");
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package observer;
+
+/**
+ * Reusable ring buffer slot holding one pending notification:
+ * either a bank-wide message or a balance change event.
+ */
+final class Notification {
+    final TransactionEvent event = new TransactionEvent();
+    String message;
+
+    void clear() {
+        message = null;
+    }
+}
@@ -0,0 +1,199 @@
+package observer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Preallocated ring buffers that move notifications off the publishing thread.
+ * <p>
+ * The ring is split into lanes, and each publisher writes to the lane its
+ * thread id maps to. A lane has a single producer sequence: the publisher
+ * that holds the lane advances it as a plain field, fills the slot in place
+ * and makes it visible with one ordered store, so publishers on different
+ * lanes never touch a shared counter. The lane count is fixed (about twice
+ * the processors) rather than one per thread, so pools and virtual threads
+ * do not grow the ring; publishers whose threads map to the same lane take
+ * turns on it.
+ * <p>
+ * One consumer thread visits the lanes in turn, drains every published slot
+ * of a lane in a batch, passes them to the sink and releases the batch with a
+ * single store. Notifications from one thread are delivered in order. A
+ * publisher only waits when its lane is full, i.e. when devices fall a lane's
+ * worth of notifications behind.
+ */
+final class NotificationRing {
+    private static final int PADDING = 16; // keep each sequence on its own cache line
+    private static final int PUBLISHED = PADDING;
+    private static final int CONSUMED = 2 * PADDING;
+    private static final int MIN_LANE_SIZE = 64;
+    private static final long FULL_WAIT_NANOS = 1_000;
+
+    private final Lane[] lanes;
+    private final Consumer<Notification> sink;
+    private final Thread consumer;
+    private volatile boolean consumerWaiting;
+    private volatile boolean running = true;
+
+    /**
+     * One publisher's ring. Holding {@code owner} makes the holder the only
+     * producer, so {@code claimed} needs no atomics; {@code PUBLISHED} is only
+     * written by the owner and {@code CONSUMED} only by the consumer thread.
+     */
+    static final class Lane {
+        private final ReentrantLock owner = new ReentrantLock();
+        private final Notification[] slots;
+        private final int mask;
+        private final AtomicLongArray sequences = new AtomicLongArray(3 * PADDING);
+        private long claimed;
+
+        Lane(int size) {
+            this.slots = new Notification[size];
+            this.mask = size - 1;
+            for (int i = 0; i < size; i++) {
+                slots[i] = new Notification();
+            }
+        }
+
+        /**
+         * @return the slot claimed by the current owner
+         */
+        Notification slot() {
+            return slots[(int) claimed & mask];
+        }
+    }
+
+    /**
+     * @param capacity total number of slots, rounded up to a power of two and
+     *                 split across the lanes; each lane holds at least 64
+     */
+    NotificationRing(int capacity, Consumer<Notification> sink) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid ring capacity: " + capacity);
+        }
+        int size = Math.max(Integer.highestOneBit(capacity - 1) << 1, 1);
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        int laneSize = Math.max(size / count, MIN_LANE_SIZE);
+        this.lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(laneSize);
+        }
+        this.sink = sink;
+        this.consumer = new Thread(this::drain, "notification-dispatch");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Takes the current thread's lane and claims its next slot, waiting while
+     * the lane is full. The caller fills {@link Lane#slot()} and must then call
+     * {@link #publish(Lane)}, which also releases the lane.
+     */
+    Lane claim() {
+        Lane lane = lanes[(int) Thread.currentThread().threadId() & (lanes.length - 1)];
+        lane.owner.lock();
+        while (lane.claimed - lane.slots.length >= lane.sequences.get(CONSUMED)) {
+            wakeConsumer();
+            LockSupport.parkNanos(FULL_WAIT_NANOS);
+        }
+        return lane;
+    }
+
+    /**
+     * Makes the claimed slot visible to the consumer and releases the lane.
+     */
+    void publish(Lane lane) {
+        lane.claimed++;
+        // volatile so the store is ordered before reading consumerWaiting
+        lane.sequences.set(PUBLISHED, lane.claimed);
+        lane.owner.unlock();
+        if (consumerWaiting) {
+            wakeConsumer();
+        }
+    }
+
+    /**
+     * Blocks until everything published before the call has been delivered.
+     */
+    void awaitDelivery() {
+        for (Lane lane : lanes) {
+            long target = lane.sequences.get(PUBLISHED);
+            while (lane.sequences.get(CONSUMED) < target && consumer.isAlive()) {
+                wakeConsumer();
+                LockSupport.parkNanos(FULL_WAIT_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Delivers what is already published and stops the consumer thread.
+     */
+    void close() {
+        awaitDelivery();
+        running = false;
+        wakeConsumer();
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void wakeConsumer() {
+        LockSupport.unpark(consumer);
+    }
+
+    private void drain() {
+        while (running) {
+            boolean delivered = false;
+            for (Lane lane : lanes) {
+                delivered |= drain(lane);
+            }
+            if (!delivered) {
+                consumerWaiting = true;
+                if (!hasPublished() && running) {
+                    LockSupport.park(this);
+                }
+                consumerWaiting = false;
+            }
+        }
+    }
+
+    /**
+     * Delivers one lane's published slots as a batch.
+     *
+     * @return whether anything was delivered
+     */
+    private boolean drain(Lane lane) {
+        long next = lane.sequences.getPlain(CONSUMED);
+        long last = lane.sequences.get(PUBLISHED);
+        if (last == next) {
+            return false;
+        }
+        for (long sequence = next; sequence < last; sequence++) {
+            deliver(lane.slots[(int) sequence & lane.mask]);
+        }
+        lane.sequences.set(CONSUMED, last);
+        return true;
+    }
+
+    private boolean hasPublished() {
+        for (Lane lane : lanes) {
+            if (lane.sequences.get(PUBLISHED) != lane.sequences.getPlain(CONSUMED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void deliver(Notification notification) {
+        try {
+            sink.accept(notification);
+        } catch (RuntimeException e) {
+            System.err.println("Notification delivery failed: " + e);
+        } finally {
+            notification.clear();
+        }
+    }
+}
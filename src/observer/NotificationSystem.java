@@ -12,4 +12,15 @@ public interface NotificationSystem {
     void seeDevices();
 
     void notifyObservers(String message);
+
+    /**
+     * Publishes a balance change to the devices subscribed to it.
+     * The event is not retained, so callers may reuse it afterwards.
+     * Systems without subscriptions broadcast its text to every device.
+     *
+     * @see TransactionEvent#of
+     */
+    default void notifyTransaction(TransactionEvent event) {
+        notifyObservers(event.render());
+    }
 }
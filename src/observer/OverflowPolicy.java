@@ -0,0 +1,15 @@
+package observer;
+
+/**
+ * What a {@link QueuedDevice} does when its queue is full.
+ */
+public enum OverflowPolicy {
+    /** Discard the oldest queued notification to make room. */
+    DROP_OLDEST,
+    /** Discard the incoming notification. */
+    DROP_NEWEST,
+    /** Overwrite the newest queued event of the same account, else drop the oldest. */
+    COALESCE,
+    /** Disconnect the device from its owners and the bank and discard its queue. */
+    DISCONNECT
+}
@@ -0,0 +1,275 @@
+package observer;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decorator that isolates a device behind its own bounded queue.
+ * <p>
+ * Publishing only copies the notification into a preallocated queue slot, so
+ * a slow or stuck device never delays transactions or other devices. By default
+ * each batch is drained on its own virtual thread, so a device blocked in I/O
+ * holds only that thread and never starves other devices' deliveries. Batches
+ * run one at a time and never on two threads at once, which keeps each
+ * device's notifications in order. When the queue is full the
+ * {@link OverflowPolicy} decides what is lost; drops and the current lag are
+ * exposed as counters. A device that disconnects itself tells its disconnect
+ * listeners first, so owners such as a client can drop it from their own
+ * lists, and is then removed from the bank.
+ */
+public class QueuedDevice implements Device {
+    private static final Executor VIRTUAL_EXECUTOR = task -> Thread.ofVirtual().name("device-delivery").start(task);
+    private static final int BATCH_SIZE = 64;
+
+    private final Device delegate;
+    private final OverflowPolicy policy;
+    private final Executor executor;
+    private final Entry[] queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Entry current = new Entry();
+    private final CopyOnWriteArrayList<Consumer<? super QueuedDevice>> disconnectListeners = new CopyOnWriteArrayList<>();
+
+    private int head;
+    private int size;
+    private boolean disconnected;
+    private long enqueued;
+    private long delivered;
+    private long dropped;
+    private long coalesced;
+
+    /**
+     * One queue slot; reused for the lifetime of the device.
+     */
+    private static final class Entry {
+        final TransactionEvent event = new TransactionEvent();
+        String message;
+        long enqueuedNanos;
+
+        void copyFrom(Entry other) {
+            event.set(other.event);
+            message = other.message;
+            enqueuedNanos = other.enqueuedNanos;
+        }
+    }
+
+    public QueuedDevice(Device delegate, int capacity, OverflowPolicy policy) {
+        this(delegate, capacity, policy, VIRTUAL_EXECUTOR);
+    }
+
+    /**
+     * @param executor runs the delivery batches; a bounded pool can be starved
+     *                 by devices that block, so prefer one thread per batch
+     */
+    public QueuedDevice(Device delegate, int capacity, OverflowPolicy policy, Executor executor) {
+        if (delegate == null || policy == null || executor == null) {
+            throw new IllegalArgumentException("Device, policy and executor cannot be null");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + capacity);
+        }
+        this.delegate = delegate;
+        this.policy = policy;
+        this.executor = executor;
+        this.queue = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            queue[i] = new Entry();
+        }
+    }
+
+    @Override
+    public void onTransaction(TransactionEvent event) {
+        enqueue(event, null);
+    }
+
+    @Override
+    public void update(String message) {
+        enqueue(null, message);
+    }
+
+    private void enqueue(TransactionEvent event, String message) {
+        boolean disconnect = false;
+        synchronized (this) {
+            if (disconnected) {
+                dropped++;
+                return;
+            }
+            Entry entry;
+            if (size < queue.length) {
+                entry = queue[(head + size++) % queue.length];
+            } else {
+                switch (policy) {
+                    case DROP_NEWEST -> {
+                        dropped++;
+                        return;
+                    }
+                    case DISCONNECT -> {
+                        disconnected = true;
+                        dropped += size + 1;
+                        size = 0;
+                        disconnect = true;
+                        entry = null;
+                    }
+                    case COALESCE -> {
+                        Entry newest = event != null ? newestFor(event.getAccountId()) : null;
+                        if (newest != null) {
+                            // keep the slot's original time so the lag still covers the oldest change
+                            coalesced++;
+                            newest.event.set(event);
+                            enqueued++;
+                            entry = null;
+                        } else {
+                            entry = dropOldest();
+                        }
+                    }
+                    default -> entry = dropOldest();
+                }
+            }
+            if (entry != null) {
+                if (event != null) {
+                    entry.event.set(event);
+                    entry.message = null;
+                } else {
+                    entry.message = message;
+                }
+                entry.enqueuedNanos = System.nanoTime();
+                enqueued++;
+            }
+        }
+        if (disconnect) {
+            for (Consumer<? super QueuedDevice> listener : disconnectListeners) {
+                listener.accept(this);
+            }
+            BankSystem.getInstance().deleteDevice(this);
+            return;
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Recycles the oldest slot as the newest one.
+     */
+    private Entry dropOldest() {
+        Entry entry = queue[head];
+        head = (head + 1) % queue.length;
+        dropped++;
+        return entry;
+    }
+
+    private Entry newestFor(int accountId) {
+        for (int i = size - 1; i >= 0; i--) {
+            Entry entry = queue[(head + i) % queue.length];
+            if (entry.message == null && entry.event.getAccountId() == accountId) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void drain() {
+        for (int n = 0; n < BATCH_SIZE; n++) {
+            synchronized (this) {
+                if (size == 0) {
+                    break;
+                }
+                current.copyFrom(queue[head]);
+                head = (head + 1) % queue.length;
+                size--;
+            }
+            try {
+                if (current.message != null) {
+                    delegate.update(current.message);
+                } else {
+                    delegate.onTransaction(current.event);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Device " + delegate + " failed: " + e);
+            }
+            synchronized (this) {
+                delivered++;
+            }
+        }
+        scheduled.set(false);
+        boolean more;
+        synchronized (this) {
+            more = size > 0;
+        }
+        // reschedule rather than loop, so a custom pooled executor is shared fairly
+        if (more && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Registers a callback run once when the {@link OverflowPolicy#DISCONNECT}
+     * policy disconnects this device. A listener already registered is not
+     * added again.
+     */
+    public void addDisconnectListener(Consumer<? super QueuedDevice> listener) {
+        disconnectListeners.addIfAbsent(listener);
+    }
+
+    public void removeDisconnectListener(Consumer<? super QueuedDevice> listener) {
+        disconnectListeners.remove(listener);
+    }
+
+    public Device getDelegate() {
+        return delegate;
+    }
+
+    public int getCapacity() {
+        return queue.length;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return notifications waiting in the queue
+     */
+    public synchronized int getQueued() {
+        return size;
+    }
+
+    /**
+     * @return age of the oldest queued notification in nanoseconds, 0 if the queue is empty
+     */
+    public synchronized long getLagNanos() {
+        return size == 0 ? 0 : System.nanoTime() - queue[head].enqueuedNanos;
+    }
+
+    public synchronized long getEnqueued() {
+        return enqueued;
+    }
+
+    public synchronized long getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * @return notifications lost to overflow, including those discarded on disconnect
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return queued events overwritten by a newer event of the same account
+     */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    public synchronized boolean isDisconnected() {
+        return disconnected;
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package observer;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Calls devices one after another on the publishing thread.
+ * Cheapest when devices are fast; one slow device delays all the others.
+ */
+public class SequentialDelivery implements DeliveryBackend {
+
+    @Override
+    public void broadcast(String message, List<Device> devices) {
+        for (Device device : devices) {
+            try {
+                device.update(message);
+            } catch (RuntimeException e) {
+                System.err.println("Device " + device + " failed: " + e);
+            }
+        }
+    }
+
+    @Override
+    public void deliver(TransactionEvent event, List<Device> clientDevices, List<Device> accountDevices) {
+        for (Device device : clientDevices) {
+            onTransaction(device, event);
+        }
+        Set<Device> notified = accountDevices.isEmpty() ? Set.of() : new HashSet<>(clientDevices);
+        for (Device device : accountDevices) {
+            if (!notified.contains(device)) {
+                onTransaction(device, event);
+            }
+        }
+    }
+
+    private static void onTransaction(Device device, TransactionEvent event) {
+        try {
+            device.onTransaction(event);
+        } catch (RuntimeException e) {
+            System.err.println("Device " + device + " failed: " + e);
+        }
+    }
+}
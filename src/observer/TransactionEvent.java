@@ -0,0 +1,147 @@
+package observer;
+
+import model.AccountStore;
+import model.Client;
+
+/**
+ * Structured notification about one balance change. Amounts are in tiyn.
+ * <p>
+ * Events are reused by the publisher: a device may read an event only while
+ * {@link Device#onTransaction} runs and must {@link #copy()} it to keep it.
+ * Text is rendered lazily and at most once per event, only if a device asks.
+ */
+public final class TransactionEvent {
+
+    /**
+     * Kind of balance change.
+     */
+    public enum Operation {
+        DEPOSIT("deposit"),
+        WITHDRAW("withdraw"),
+        PAYMENT("payment"),
+        TRANSFER_OUT("transfer out"),
+        TRANSFER_IN("transfer in");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final MessageTemplate TEMPLATE = MessageTemplate.compile(
+            "Client: {client} | Account: {account} | Operation: {operation} | Amount: {amount} ₸ | Balance left: {balance} ₸");
+    private static final MessageTemplate BONUS_TEMPLATE = MessageTemplate.compile(
+            "Client: {client} | Account: {account} | Operation: {operation} | Amount: {amount} ₸ | Bonus: +{bonus} ₸ | Balance left: {balance} ₸");
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(160));
+
+    private int clientId;
+    private int accountId;
+    private Operation operation;
+    private long amount;
+    private long balance;
+    private long bonus;
+    private String text;
+
+    /**
+     * Creates an event for publishing through
+     * {@link NotificationSystem#notifyTransaction}. Amounts are in tiyn.
+     *
+     * @param bonus the amount credited back by a payment, 0 otherwise
+     */
+    public static TransactionEvent of(int clientId, int accountId, Operation operation,
+                                      long amount, long balance, long bonus) {
+        if (operation == null) {
+            throw new IllegalArgumentException("Operation cannot be null");
+        }
+        return new TransactionEvent().set(clientId, accountId, operation, amount, balance, bonus);
+    }
+
+    /**
+     * Overwrites this event with a new balance change.
+     */
+    TransactionEvent set(int clientId, int accountId, Operation operation, long amount, long balance, long bonus) {
+        this.clientId = clientId;
+        this.accountId = accountId;
+        this.operation = operation;
+        this.amount = amount;
+        this.balance = balance;
+        this.bonus = bonus;
+        this.text = null;
+        return this;
+    }
+
+    TransactionEvent set(TransactionEvent other) {
+        return set(other.clientId, other.accountId, other.operation, other.amount, other.balance, other.bonus);
+    }
+
+    /**
+     * @return a detached copy that is safe to keep after delivery
+     */
+    public TransactionEvent copy() {
+        return new TransactionEvent().set(this);
+    }
+
+    public int getClientId() {
+        return clientId;
+    }
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    /**
+     * @return the bonus credited back by a payment, 0 for other operations
+     */
+    public long getBonus() {
+        return bonus;
+    }
+
+    /**
+     * @return the owner's full name, looked up when first needed
+     */
+    public String getClientName() {
+        Client client = AccountStore.getInstance().getClient(clientId);
+        return client != null ? client.getName() : String.valueOf(clientId);
+    }
+
+    public String getAccountName() {
+        return AccountStore.getInstance().getName(accountId);
+    }
+
+    /**
+     * Renders the standard notification text, caching it for other devices.
+     */
+    public String render() {
+        String rendered = text;
+        if (rendered == null) {
+            StringBuilder sb = BUFFER.get();
+            sb.setLength(0);
+            (operation == Operation.PAYMENT ? BONUS_TEMPLATE : TEMPLATE).appendTo(sb, this);
+            rendered = sb.toString();
+            text = rendered;
+        }
+        return rendered;
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+}
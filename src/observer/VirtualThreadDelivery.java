@@ -0,0 +1,110 @@
+package observer;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every device call of a notification on its own virtual thread.
+ * <p>
+ * Devices keep a plain blocking {@link Device#update} (sockets, push gateways):
+ * a blocked virtual thread releases its carrier, so delivery time is bounded by
+ * the slowest device rather than the sum of all of them. The threads come from
+ * one long-lived executor. The publisher waits for the fan-out only up to a
+ * deadline; devices still running after it finish in the background, so one
+ * stuck device cannot hold up the publisher. Those devices may then see their
+ * next notification before the late one completes; wrap them in a
+ * {@link QueuedDevice} when strict order matters.
+ * <p>
+ * Devices get a detached copy of the event, rendered once up front, since
+ * the publisher reuses its event after the deadline.
+ */
+public class VirtualThreadDelivery implements DeliveryBackend, AutoCloseable {
+    private static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(1);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long deadlineNanos;
+
+    public VirtualThreadDelivery() {
+        this(DEFAULT_DEADLINE);
+    }
+
+    /**
+     * @param deadline how long a publisher waits for all devices of one notification
+     */
+    public VirtualThreadDelivery(Duration deadline) {
+        if (deadline == null || deadline.isNegative()) {
+            throw new IllegalArgumentException("Invalid fan-out deadline: " + deadline);
+        }
+        this.deadlineNanos = deadline.toNanos();
+    }
+
+    @Override
+    public void broadcast(String message, List<Device> devices) {
+        CountDownLatch done = new CountDownLatch(devices.size());
+        for (Device device : devices) {
+            executor.execute(() -> {
+                try {
+                    device.update(message);
+                } catch (RuntimeException e) {
+                    System.err.println("Device " + device + " failed: " + e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        await(done);
+    }
+
+    @Override
+    public void deliver(TransactionEvent event, List<Device> clientDevices, List<Device> accountDevices) {
+        TransactionEvent detached = event.copy();
+        detached.render();
+        Set<Device> notified = accountDevices.isEmpty() ? Set.of() : new HashSet<>(clientDevices);
+        CountDownLatch done = new CountDownLatch(clientDevices.size() + accountDevices.size());
+        for (Device device : clientDevices) {
+            executor.execute(() -> onTransaction(device, detached, done));
+        }
+        for (Device device : accountDevices) {
+            if (notified.contains(device)) {
+                done.countDown();
+            } else {
+                executor.execute(() -> onTransaction(device, detached, done));
+            }
+        }
+        await(done);
+    }
+
+    /**
+     * Stops accepting work and waits for device calls still running.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private void await(CountDownLatch done) {
+        try {
+            if (!done.await(deadlineNanos, TimeUnit.NANOSECONDS)) {
+                System.err.println(done.getCount() + " device(s) missed the delivery deadline");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void onTransaction(Device device, TransactionEvent event, CountDownLatch done) {
+        try {
+            device.onTransaction(event);
+        } catch (RuntimeException e) {
+            System.err.println("Device " + device + " failed: " + e);
+        } finally {
+            done.countDown();
+        }
+    }
+}
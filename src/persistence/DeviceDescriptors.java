@@ -0,0 +1,85 @@
+package persistence;
+
+import observer.CoalescingDevice;
+import observer.CoalescingPolicy;
+import observer.Device;
+import observer.OverflowPolicy;
+import observer.QueuedDevice;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Text form of a device for the journal and snapshots.
+ * <p>
+ * A plain device is its class name and is recreated through its no-arg
+ * constructor. The wrappers add their settings and the delegate's own
+ * descriptor, so a wrapped device comes back with its queue or digest:
+ * <pre>
+ * observer.QueuedDevice:capacity:policy:delegate
+ * observer.CoalescingDevice:policy:windowNanos:maxEvents:delegate
+ * </pre>
+ * A queued device is restored on the default executor.
+ */
+final class DeviceDescriptors {
+    private static final String QUEUED = QueuedDevice.class.getName();
+    private static final String COALESCING = CoalescingDevice.class.getName();
+
+    private DeviceDescriptors() {
+    }
+
+    static String describe(Device device) {
+        if (device instanceof QueuedDevice queued) {
+            return QUEUED + ':' + queued.getCapacity() + ':' + queued.getPolicy() + ':'
+                    + describe(queued.getDelegate());
+        }
+        if (device instanceof CoalescingDevice coalescing) {
+            return COALESCING + ':' + coalescing.getPolicy() + ':' + coalescing.getWindow().toNanos() + ':'
+                    + coalescing.getMaxEvents() + ':' + describe(coalescing.getDelegate());
+        }
+        return device.getClass().getName();
+    }
+
+    /**
+     * Recreates a device. Devices that cannot be recreated (e.g. lambdas or
+     * classes without a no-arg constructor) are reported and skipped.
+     *
+     * @return the device, or null if it was skipped
+     */
+    static Device create(String descriptor) {
+        try {
+            return parse(descriptor);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("Device not restored: " + descriptor + " (" + e + ")");
+            return null;
+        }
+    }
+
+    /**
+     * Locates a removed device: the journaled position if it still holds the
+     * same descriptor, otherwise the first device with that descriptor.
+     *
+     * @return the index, or -1 if no device matches
+     */
+    static int indexOf(List<String> descriptors, int index, String descriptor) {
+        if (index >= 0 && index < descriptors.size() && descriptors.get(index).equals(descriptor)) {
+            return index;
+        }
+        return descriptors.indexOf(descriptor);
+    }
+
+    private static Device parse(String descriptor) throws ReflectiveOperationException {
+        String[] fields;
+        if (descriptor.startsWith(QUEUED + ':')) {
+            fields = descriptor.split(":", 4);
+            return new QueuedDevice(parse(fields[3]), Integer.parseInt(fields[1]),
+                    OverflowPolicy.valueOf(fields[2]));
+        }
+        if (descriptor.startsWith(COALESCING + ':')) {
+            fields = descriptor.split(":", 5);
+            return new CoalescingDevice(parse(fields[4]), CoalescingPolicy.valueOf(fields[1]),
+                    Duration.ofNanos(Long.parseLong(fields[2])), Integer.parseInt(fields[3]));
+        }
+        return Class.forName(descriptor).asSubclass(Device.class).getDeclaredConstructor().newInstance();
+    }
+}
@@ -0,0 +1,53 @@
+package persistence;
+
+/**
+ * Kinds of records in the transaction journal.
+ * Balance records carry amounts in tiyn and are replayed as deltas. Loan and
+ * device records keep the rest of a client's state, so a restart recovers
+ * everything created since the last snapshot.
+ */
+public enum JournalOp {
+    OPEN_CLIENT(1),
+    OPEN_ACCOUNT(2),
+    DEPOSIT(3),
+    WITHDRAW(4),
+    PAYMENT(5),
+    INTEREST(6),
+    TRANSFER(7),
+    OPEN_LOAN(8),
+    ADD_DEVICE(9),
+    REMOVE_DEVICE(10);
+
+    private static final JournalOp[] BY_CODE = new JournalOp[11];
+
+    static {
+        for (JournalOp op : values()) {
+            BY_CODE[op.code] = op;
+        }
+    }
+
+    private final byte code;
+
+    JournalOp(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    /**
+     * @return true for records that move money: deposits, withdrawals,
+     *         payments, interest and transfers
+     */
+    public boolean changesBalance() {
+        return this == DEPOSIT || this == WITHDRAW || this == PAYMENT || this == INTEREST || this == TRANSFER;
+    }
+
+    /**
+     * @return the op for a code, or null if the code is not a valid op
+     */
+    public static JournalOp fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
@@ -0,0 +1,110 @@
+package persistence;
+
+import model.AccountType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One record read back from the journal.
+ * Instances are reused by the reader for every record, so visitors must copy
+ * any field they want to keep after {@link JournalVisitor#visit} returns.
+ */
+public final class JournalRecord {
+    private static final AccountType[] TYPES = AccountType.values();
+
+    JournalOp op;
+    int accountType;
+    int accountId;
+    int counterpartyId;
+    long amount;
+    long bonus;
+    long timestampMillis;
+    long lsn;
+    byte[] payload = new byte[0];
+    int payloadLength;
+
+    public JournalOp getOp() {
+        return op;
+    }
+
+    /**
+     * @return the account type of an OPEN_ACCOUNT record
+     */
+    public AccountType getAccountType() {
+        return TYPES[accountType];
+    }
+
+    /**
+     * @return true if an OPEN_LOAN record's loan requires insurance
+     */
+    public boolean isInsuranceRequired() {
+        return accountType != 0;
+    }
+
+    /**
+     * @return the account id, or the client id for client, loan and device records
+     */
+    public int getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return the destination account of a TRANSFER, the owner of an OPEN_ACCOUNT,
+     *         the term in months of an OPEN_LOAN,
+     *         or for an INTEREST record the epoch day it accrued through (for bulk
+     *         runs the day after the run's period; 0 in journals written before)
+     */
+    public int getCounterpartyId() {
+        return counterpartyId;
+    }
+
+    /**
+     * @return the operation amount in tiyn (never negative for balance records),
+     *         the principal of an OPEN_LOAN,
+     *         or the accrual start day of an OPEN_ACCOUNT record (0 in older journals)
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * @return the bonus credited back by a PAYMENT, in tiyn, the start epoch
+     *         day of an OPEN_LOAN, or for an INTEREST record the interest
+     *         carried to the next accrual, in millionths of a tiyn
+     */
+    public long getBonus() {
+        return bonus;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * @return the journal position right after this record
+     */
+    public long getLsn() {
+        return lsn;
+    }
+
+    /**
+     * Returns the signed change this record made to {@code accountId}'s balance.
+     * For transfers the counterparty receives the negation.
+     */
+    public long balanceDelta() {
+        return switch (op) {
+            case DEPOSIT, INTEREST -> amount;
+            case WITHDRAW, TRANSFER -> -amount;
+            case PAYMENT -> bonus - amount;
+            case OPEN_CLIENT, OPEN_ACCOUNT, OPEN_LOAN, ADD_DEVICE, REMOVE_DEVICE -> 0;
+        };
+    }
+
+    /**
+     * Decodes the text fields stored with OPEN_CLIENT, OPEN_ACCOUNT, OPEN_LOAN
+     * and device records.
+     */
+    public String[] payloadStrings() {
+        return TransactionJournal.decodeStrings(new String(payload, 0, payloadLength, StandardCharsets.UTF_8));
+    }
+}
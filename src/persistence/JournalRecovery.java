@@ -0,0 +1,167 @@
+package persistence;
+
+import builder.AgreementNumberGenerator;
+import builder.LoanAgreement;
+import builder.LoanAgreementBuilder;
+import model.AccountStore;
+import model.BankStatistics;
+import model.Client;
+import observer.Device;
+import observer.TransactionEvent.Operation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rebuilds in-memory state from the transaction journal on startup.
+ * <p>
+ * Client and account records recreate rows with their original ids; balance
+ * records are applied as signed deltas. Because deltas commute, records of the
+ * same account may appear in any order relative to each other and the final
+ * balances are still exact. Records for clients and accounts that already
+ * exist (e.g. restored from a snapshot) are skipped. Each account's accrual
+ * day becomes the latest day found in its OPEN_ACCOUNT and INTEREST records.
+ * Deposits, withdrawals, payments and transfers are also counted into
+ * {@link BankStatistics}, on top of the totals restored from a snapshot.
+ * <p>
+ * Loans are rebuilt from OPEN_LOAN records, skipping agreement numbers the
+ * client already has, and devices are reconnected or removed by descriptor and position
+ * (see {@link DeviceDescriptors}); devices that cannot be recreated are logged.
+ */
+public final class JournalRecovery {
+
+    private JournalRecovery() {
+    }
+
+    /**
+     * Startup entry point: opens the journal in {@code directory}, replays it
+     * into the store and attaches it so new mutations are journaled.
+     *
+     * @return the opened journal
+     */
+    public static TransactionJournal openAndRecover(Path directory, AccountStore store) throws IOException {
+        TransactionJournal journal = TransactionJournal.open(directory);
+        replay(journal, 0, store);
+        store.setJournal(journal);
+        return journal;
+    }
+
+    /**
+     * Replays every record from {@code fromLsn} into the store, then refreshes
+     * cached bonuses and moves the agreement number generator past the newest
+     * replayed loan.
+     *
+     * @return the number of records applied
+     */
+    public static long replay(TransactionJournal journal, long fromLsn, AccountStore store) throws IOException {
+        long[] lastAgreementId = {-1};
+        long applied = journal.replay(fromLsn, record -> {
+            apply(record, store);
+            if (record.getOp() == JournalOp.OPEN_LOAN) {
+                lastAgreementId[0] = Math.max(lastAgreementId[0],
+                        AgreementNumberGenerator.parseId(record.payloadStrings()[1]));
+            }
+        });
+        if (lastAgreementId[0] >= 0) {
+            AgreementNumberGenerator.getInstance().resumeAfter(lastAgreementId[0]);
+        }
+        store.recomputeBonuses();
+        return applied;
+    }
+
+    static void apply(JournalRecord record, AccountStore store) {
+        switch (record.getOp()) {
+            case OPEN_CLIENT -> {
+                if (store.getClient(record.getAccountId()) != null) {
+                    return;
+                }
+                String[] fields = record.payloadStrings();
+                store.restoreClient(Client.restore(record.getAccountId(), fields[0], fields[1], fields[2], fields[3]));
+            }
+            case OPEN_ACCOUNT -> {
+                if (!store.exists(record.getAccountId())) {
+                    store.restoreAccount(record.getAccountId(), record.getCounterpartyId(),
+                            record.getAccountType(), record.payloadStrings()[0]);
+                    Client owner = store.getClient(record.getCounterpartyId());
+                    if (owner != null) {
+                        owner.createAccount(store.account(record.getAccountId()));
+                    }
+                }
+                store.restoreAccrualDay(record.getAccountId(), (int) record.getAmount());
+            }
+            case TRANSFER -> {
+                store.addToBalance(record.getAccountId(), -record.getAmount());
+                store.addToBalance(record.getCounterpartyId(), record.getAmount());
+                BankStatistics.getInstance().record(Operation.TRANSFER_OUT, record.getAmount(), 0);
+                BankStatistics.getInstance().record(Operation.TRANSFER_IN, record.getAmount(), 0);
+            }
+            case INTEREST -> {
+                store.addToBalance(record.getAccountId(), record.getAmount());
+                store.restoreAccrual(record.getAccountId(), record.getCounterpartyId(), (int) record.getBonus());
+            }
+            case OPEN_LOAN -> restoreLoan(record, store.getClient(record.getAccountId()));
+            case ADD_DEVICE -> {
+                Client client = store.getClient(record.getAccountId());
+                if (client != null) {
+                    Device device = DeviceDescriptors.create(record.payloadStrings()[0]);
+                    if (device != null) {
+                        client.addDevice(device);
+                    }
+                }
+            }
+            case REMOVE_DEVICE -> {
+                Client client = store.getClient(record.getAccountId());
+                if (client != null) {
+                    List<Device> devices = client.getDevices();
+                    int index = DeviceDescriptors.indexOf(
+                            devices.stream().map(DeviceDescriptors::describe).toList(),
+                            record.getCounterpartyId(), record.payloadStrings()[0]);
+                    if (index >= 0) {
+                        client.deleteDevice(devices.get(index));
+                    }
+                }
+            }
+            default -> {
+                store.addToBalance(record.getAccountId(), record.balanceDelta());
+                BankStatistics.getInstance().record(operationOf(record.getOp()), record.getAmount(), record.getBonus());
+            }
+        }
+    }
+
+    /**
+     * @return the statistics operation of a DEPOSIT, WITHDRAW or PAYMENT record
+     */
+    static Operation operationOf(JournalOp op) {
+        return switch (op) {
+            case DEPOSIT -> Operation.DEPOSIT;
+            case WITHDRAW -> Operation.WITHDRAW;
+            case PAYMENT -> Operation.PAYMENT;
+            default -> throw new IllegalArgumentException("Not a balance operation: " + op);
+        };
+    }
+
+    private static void restoreLoan(JournalRecord record, Client client) {
+        if (client == null) {
+            return;
+        }
+        String[] fields = record.payloadStrings();
+        String number = fields[1];
+        for (LoanAgreement loan : client.getLoans()) {
+            if (number.equals(loan.getAgreementNumber())) {
+                return;
+            }
+        }
+        new LoanAgreementBuilder()
+                .setClient(client)
+                .setAmount(record.getAmount())
+                .setInterestRate(Double.parseDouble(fields[0]))
+                .setTermMonths(record.getCounterpartyId())
+                .setStartDate(LocalDate.ofEpochDay(record.getBonus()))
+                .setInsuranceRequired(record.isInsuranceRequired())
+                .setAgreementNumber(number)
+                .setPurpose(fields[2].isEmpty() ? null : fields[2])
+                .build();
+    }
+}
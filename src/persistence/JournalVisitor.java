@@ -0,0 +1,12 @@
+package persistence;
+
+/**
+ * Callback for reading the journal record by record.
+ */
+@FunctionalInterface
+public interface JournalVisitor {
+    /**
+     * @param record the current record; reused for the next call
+     */
+    void visit(JournalRecord record);
+}
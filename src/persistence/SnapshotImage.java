@@ -0,0 +1,206 @@
+package persistence;
+
+import observer.TransactionEvent.Operation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32C;
+
+/**
+ * Parsed content of one snapshot file.
+ * <p>
+ * The file is mapped read-only and account columns are copied out with bulk
+ * reads, so loading millions of accounts costs a few array copies rather than
+ * a per-field decode. Layout (big-endian):
+ * <pre>
+ * magic | version | lsn | clients | accounts | loans | operations
+ * clients:  id, lastname, firstname, email, phone, device count, device descriptors...
+ * accounts: ids int[n], owners int[n], balances long[n], accrual days int[n],
+ *           accrual carries int[n], types byte[n], names...
+ * loans:    client id, amount, rate, term, start epoch day, insurance, number, purpose
+ * operations: operation count, then count and amount per operation; payment bonuses
+ * crc32c of everything before it
+ * </pre>
+ * Strings are an int length followed by UTF-8 bytes; a length of -1 is null.
+ */
+final class SnapshotImage {
+    static final Operation[] OPERATIONS = Operation.values();
+    static final int MAGIC = 0x42534E50;
+    static final int VERSION = 1;
+
+    long lsn;
+
+    int[] clientIds;
+    String[][] clientFields;
+    String[][] clientDevices;
+
+    int[] accountIds;
+    int[] accountOwners;
+    long[] balances;
+    int[] accrualDays;
+    int[] accrualCarries;
+    byte[] accountTypes;
+    String[] accountNames;
+
+    int[] loanClients;
+    long[] loanAmounts;
+    double[] loanRates;
+    int[] loanTerms;
+    LocalDate[] loanStartDates;
+    boolean[] loanInsurance;
+    String[] loanNumbers;
+    String[] loanPurposes;
+
+    long[] operationCounts = new long[OPERATIONS.length];
+    long[] operationAmounts = new long[OPERATIONS.length];
+    long bonuses;
+
+    /**
+     * Maps and parses a snapshot file.
+     *
+     * @throws IOException if the file cannot be read, or is not a valid snapshot
+     */
+    static SnapshotImage read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int bodyLength = buffer.limit() - Long.BYTES;
+        if (bodyLength < 16) {
+            throw new IOException("Snapshot too short: " + file);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, bodyLength));
+        if (crc.getValue() != buffer.getLong(bodyLength)) {
+            throw new IOException("Snapshot checksum mismatch: " + file);
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot file: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + file);
+        }
+
+        SnapshotImage image = new SnapshotImage();
+        image.lsn = buffer.getLong();
+
+        int clients = buffer.getInt();
+        image.clientIds = new int[clients];
+        image.clientFields = new String[clients][];
+        image.clientDevices = new String[clients][];
+        for (int i = 0; i < clients; i++) {
+            image.clientIds[i] = buffer.getInt();
+            image.clientFields[i] = new String[]{
+                    readString(buffer), readString(buffer), readString(buffer), readString(buffer)};
+            String[] devices = new String[buffer.getInt()];
+            for (int d = 0; d < devices.length; d++) {
+                devices[d] = readString(buffer);
+            }
+            image.clientDevices[i] = devices;
+        }
+
+        int accounts = buffer.getInt();
+        image.accountIds = new int[accounts];
+        image.accountOwners = new int[accounts];
+        image.balances = new long[accounts];
+        image.accrualDays = new int[accounts];
+        image.accrualCarries = new int[accounts];
+        image.accountTypes = new byte[accounts];
+        image.accountNames = new String[accounts];
+        buffer.asIntBuffer().get(image.accountIds);
+        buffer.position(buffer.position() + accounts * Integer.BYTES);
+        buffer.asIntBuffer().get(image.accountOwners);
+        buffer.position(buffer.position() + accounts * Integer.BYTES);
+        buffer.asLongBuffer().get(image.balances);
+        buffer.position(buffer.position() + accounts * Long.BYTES);
+        buffer.asIntBuffer().get(image.accrualDays);
+        buffer.position(buffer.position() + accounts * Integer.BYTES);
+        buffer.asIntBuffer().get(image.accrualCarries);
+        buffer.position(buffer.position() + accounts * Integer.BYTES);
+        buffer.get(image.accountTypes);
+        for (int i = 0; i < accounts; i++) {
+            image.accountNames[i] = readString(buffer);
+        }
+
+        int loans = buffer.getInt();
+        image.loanClients = new int[loans];
+        image.loanAmounts = new long[loans];
+        image.loanRates = new double[loans];
+        image.loanTerms = new int[loans];
+        image.loanStartDates = new LocalDate[loans];
+        image.loanInsurance = new boolean[loans];
+        image.loanNumbers = new String[loans];
+        image.loanPurposes = new String[loans];
+        for (int i = 0; i < loans; i++) {
+            image.loanClients[i] = buffer.getInt();
+            image.loanAmounts[i] = buffer.getLong();
+            image.loanRates[i] = buffer.getDouble();
+            image.loanTerms[i] = buffer.getInt();
+            image.loanStartDates[i] = LocalDate.ofEpochDay(buffer.getLong());
+            image.loanInsurance[i] = buffer.get() != 0;
+            image.loanNumbers[i] = readString(buffer);
+            image.loanPurposes[i] = readString(buffer);
+        }
+
+        int operations = buffer.getInt();
+        for (int i = 0; i < operations; i++) {
+            long count = buffer.getLong();
+            long amount = buffer.getLong();
+            if (i < OPERATIONS.length) {
+                image.operationCounts[i] = count;
+                image.operationAmounts[i] = amount;
+            }
+        }
+        image.bonuses = buffer.getLong();
+        return image;
+    }
+
+    /**
+     * Returns the balance of every account in the image, indexed by account id.
+     */
+    long[] balancesById(int size) {
+        long[] byId = new long[size];
+        for (int i = 0; i < accountIds.length; i++) {
+            byId[accountIds[i]] = balances[i];
+        }
+        return byId;
+    }
+
+    /**
+     * Returns the accrual day of every account in the image, indexed by account id.
+     */
+    int[] accrualDaysById(int size) {
+        int[] byId = new int[size];
+        for (int i = 0; i < accountIds.length; i++) {
+            byId[accountIds[i]] = accrualDays[i];
+        }
+        return byId;
+    }
+
+    /**
+     * Returns the accrual carry of every account in the image, indexed by account id.
+     */
+    int[] accrualCarriesById(int size) {
+        int[] byId = new int[size];
+        for (int i = 0; i < accountIds.length; i++) {
+            byId[accountIds[i]] = accrualCarries[i];
+        }
+        return byId;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
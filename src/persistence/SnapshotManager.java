@@ -0,0 +1,481 @@
+package persistence;
+
+import builder.AgreementNumberGenerator;
+import builder.LoanAgreement;
+import builder.LoanAgreementBuilder;
+import model.AccountStore;
+import model.AccountType;
+import model.BankStatistics;
+import model.Client;
+import observer.Device;
+import observer.TransactionEvent.Operation;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes point-in-time snapshots of the bank and restores from them on startup.
+ * <p>
+ * A checkpoint seals the current journal segment at position B and computes
+ * balances as of B by compaction: the previous snapshot's balances plus the
+ * deltas of the sealed segments since it. Live writers are never paused and
+ * nothing is counted twice, because every mutation after B is only in the
+ * journal tail. Loans and device registrations are compacted the same way,
+ * from the previous snapshot plus the OPEN_LOAN and device records up to B,
+ * and so are the operation totals of {@link BankStatistics}.
+ * Clients and accounts are append-only and are read live; anything created
+ * after B is also in the tail and is skipped on replay.
+ * <p>
+ * Once the snapshot is atomically renamed into place and the rename is made
+ * durable by forcing the directory, older snapshots and the sealed segments
+ * are deleted. Restart loads the latest snapshot and replays
+ * only the journal written after it.
+ * <p>
+ * Without an attached journal, balances, loans, devices and totals are read
+ * straight from the store and the snapshot is only consistent if no
+ * mutations run during the checkpoint.
+ */
+public final class SnapshotManager implements Closeable {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final AccountType[] TYPES = AccountType.values();
+
+    private final Path directory;
+    private final AccountStore store;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * State as of a checkpoint position, compacted from the previous snapshot
+     * and the journal.
+     */
+    private static final class Compacted {
+        long[] balances;
+        int[] accrualDays;
+        int[] accrualCarries;
+        final Map<Integer, List<String>> devicesByClient = new HashMap<>();
+        final List<LoanRow> loans = new ArrayList<>();
+        final Set<String> loanNumbers = new HashSet<>();
+        long[] operationCounts = new long[SnapshotImage.OPERATIONS.length];
+        long[] operationAmounts = new long[SnapshotImage.OPERATIONS.length];
+        long bonuses;
+
+        void addLoan(LoanRow loan) {
+            if (loanNumbers.add(loan.number())) {
+                loans.add(loan);
+            }
+        }
+
+        void count(Operation operation, long amount) {
+            operationCounts[operation.ordinal()]++;
+            operationAmounts[operation.ordinal()] += amount;
+        }
+    }
+
+    private record LoanRow(int clientId, long amount, double rate, int termMonths, long startEpochDay,
+                           boolean insuranceRequired, String number, String purpose) {
+    }
+
+    public SnapshotManager(Path directory, AccountStore store) throws IOException {
+        this.directory = directory;
+        this.store = store;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Startup entry point: restores the latest snapshot in {@code snapshotDirectory}
+     * (if any), replays the journal written after it and attaches the journal.
+     * Use this instead of {@link JournalRecovery#openAndRecover} once snapshots
+     * have been taken, since checkpoints delete the journal they cover.
+     *
+     * @return the opened journal
+     */
+    public static TransactionJournal restore(Path snapshotDirectory, Path journalDirectory,
+                                             AccountStore store) throws IOException {
+        TransactionJournal journal = TransactionJournal.open(journalDirectory);
+        long fromLsn = 0;
+        Path latest = latestSnapshot(snapshotDirectory);
+        if (latest != null) {
+            SnapshotImage image = SnapshotImage.read(latest);
+            load(image, store);
+            fromLsn = image.lsn;
+        }
+        JournalRecovery.replay(journal, fromLsn, store);
+        store.setJournal(journal);
+        return journal;
+    }
+
+    /**
+     * Writes a snapshot of the current state and deletes what it supersedes.
+     *
+     * @return the snapshot file
+     */
+    public synchronized Path checkpoint() throws IOException {
+        TransactionJournal journal = store.getJournal();
+        long lsn = journal != null ? journal.seal() : 0;
+        int accountLimit = (int) Math.min(store.ids().highWaterMark(), Integer.MAX_VALUE);
+        int clientLimit = (int) Math.min(Client.ids().highWaterMark(), Integer.MAX_VALUE);
+
+        Compacted compacted = journal != null ? compact(journal, lsn, accountLimit) : null;
+
+        Path target = directory.resolve(String.format("%s%016x%s", SNAPSHOT_PREFIX, lsn, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C crc = new CRC32C();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeInt(SnapshotImage.MAGIC);
+            out.writeInt(SnapshotImage.VERSION);
+            out.writeLong(lsn);
+            List<Client> clients = writeClients(out, clientLimit, compacted);
+            writeAccounts(out, accountLimit, compacted);
+            writeLoans(out, clients, compacted);
+            writeOperations(out, compacted);
+            out.flush();
+            new DataOutputStream(Channels.newOutputStream(channel)).writeLong(crc.getValue());
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(directory);
+
+        for (Path old : snapshots(directory)) {
+            if (!old.equals(target)) {
+                Files.deleteIfExists(old);
+            }
+        }
+        if (journal != null) {
+            journal.deleteSegmentsBefore(lsn);
+        }
+        return target;
+    }
+
+    /**
+     * Takes a checkpoint every {@code period} on a background daemon thread.
+     * Failures are reported and retried at the next period.
+     */
+    public synchronized void startPeriodic(long period, TimeUnit unit) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Periodic checkpoints already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "snapshot-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException | UncheckedIOException e) {
+                System.err.println("Snapshot checkpoint failed: " + e.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stops periodic checkpoints.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Computes balances, accrual days, loans, devices and operation totals as of {@code lsn}.
+     */
+    private Compacted compact(TransactionJournal journal, long lsn, int accountLimit) throws IOException {
+        Path previous = latestSnapshot(directory);
+        long fromLsn = 0;
+        Compacted state = new Compacted();
+        if (previous != null) {
+            SnapshotImage image = SnapshotImage.read(previous);
+            fromLsn = image.lsn;
+            state.balances = image.balancesById(accountLimit);
+            state.accrualDays = image.accrualDaysById(accountLimit);
+            state.accrualCarries = image.accrualCarriesById(accountLimit);
+            for (int i = 0; i < image.clientIds.length; i++) {
+                state.devicesByClient.put(image.clientIds[i], new ArrayList<>(List.of(image.clientDevices[i])));
+            }
+            for (int i = 0; i < image.loanClients.length; i++) {
+                state.addLoan(new LoanRow(image.loanClients[i], image.loanAmounts[i], image.loanRates[i],
+                        image.loanTerms[i], image.loanStartDates[i].toEpochDay(), image.loanInsurance[i],
+                        image.loanNumbers[i], image.loanPurposes[i]));
+            }
+            state.operationCounts = image.operationCounts;
+            state.operationAmounts = image.operationAmounts;
+            state.bonuses = image.bonuses;
+        } else {
+            state.balances = new long[accountLimit];
+            state.accrualDays = new int[accountLimit];
+            state.accrualCarries = new int[accountLimit];
+        }
+        long[] balances = state.balances;
+        int[] accrualDays = state.accrualDays;
+        int[] accrualCarries = state.accrualCarries;
+        journal.replay(fromLsn, lsn, record -> {
+            switch (record.getOp()) {
+                case OPEN_CLIENT -> {
+                }
+                case OPEN_ACCOUNT -> accrualDays[record.getAccountId()] =
+                        Math.max(accrualDays[record.getAccountId()], (int) record.getAmount());
+                case INTEREST -> {
+                    balances[record.getAccountId()] += record.getAmount();
+                    if (record.getCounterpartyId() >= accrualDays[record.getAccountId()]) {
+                        accrualDays[record.getAccountId()] = record.getCounterpartyId();
+                        accrualCarries[record.getAccountId()] = (int) record.getBonus();
+                    }
+                }
+                case TRANSFER -> {
+                    balances[record.getAccountId()] -= record.getAmount();
+                    balances[record.getCounterpartyId()] += record.getAmount();
+                    state.count(Operation.TRANSFER_OUT, record.getAmount());
+                    state.count(Operation.TRANSFER_IN, record.getAmount());
+                }
+                case OPEN_LOAN -> {
+                    String[] fields = record.payloadStrings();
+                    state.addLoan(new LoanRow(record.getAccountId(), record.getAmount(),
+                            Double.parseDouble(fields[0]), record.getCounterpartyId(), record.getBonus(),
+                            record.isInsuranceRequired(), fields[1], fields[2].isEmpty() ? null : fields[2]));
+                }
+                case ADD_DEVICE -> state.devicesByClient
+                        .computeIfAbsent(record.getAccountId(), id -> new ArrayList<>())
+                        .add(record.payloadStrings()[0]);
+                case REMOVE_DEVICE -> {
+                    List<String> devices = state.devicesByClient.get(record.getAccountId());
+                    int index = devices == null ? -1
+                            : DeviceDescriptors.indexOf(devices, record.getCounterpartyId(), record.payloadStrings()[0]);
+                    if (index >= 0) {
+                        devices.remove(index);
+                    }
+                }
+                default -> {
+                    balances[record.getAccountId()] += record.balanceDelta();
+                    state.count(JournalRecovery.operationOf(record.getOp()), record.getAmount());
+                    state.bonuses += record.getBonus();
+                }
+            }
+        });
+        return state;
+    }
+
+    private List<Client> writeClients(DataOutputStream out, int clientLimit, Compacted compacted)
+            throws IOException {
+        List<Client> clients = new ArrayList<>();
+        for (int id = 1; id < clientLimit; id++) {
+            Client client = store.getClient(id);
+            if (client != null) {
+                clients.add(client);
+            }
+        }
+        out.writeInt(clients.size());
+        for (Client client : clients) {
+            out.writeInt(client.getClientId());
+            writeString(out, client.getLastname());
+            writeString(out, client.getFirstname());
+            writeString(out, client.getEmail());
+            writeString(out, client.getPhone());
+            List<String> devices;
+            if (compacted != null) {
+                devices = compacted.devicesByClient.getOrDefault(client.getClientId(), List.of());
+            } else {
+                devices = client.getDevices().stream().map(DeviceDescriptors::describe).toList();
+            }
+            out.writeInt(devices.size());
+            for (String device : devices) {
+                writeString(out, device);
+            }
+        }
+        return clients;
+    }
+
+    private void writeAccounts(DataOutputStream out, int accountLimit, Compacted compacted) throws IOException {
+        long[] balances = compacted != null ? compacted.balances : null;
+        int[] accrualDays = compacted != null ? compacted.accrualDays : null;
+        int[] accrualCarries = compacted != null ? compacted.accrualCarries : null;
+        int count = 0;
+        int[] ids = new int[Math.max(accountLimit, 0)];
+        for (int id = 1; id < accountLimit; id++) {
+            if (store.exists(id)) {
+                ids[count++] = id;
+            }
+        }
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeInt(ids[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(store.getOwnerId(ids[i]));
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeLong(balances != null ? balances[ids[i]] : store.getBalance(ids[i]));
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(accrualDays != null ? accrualDays[ids[i]] : store.getAccrualDay(ids[i]));
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(accrualCarries != null ? accrualCarries[ids[i]] : store.getAccrualCarry(ids[i]));
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeByte(store.getType(ids[i]).ordinal());
+        }
+        for (int i = 0; i < count; i++) {
+            writeString(out, store.getName(ids[i]));
+        }
+    }
+
+    private static void writeLoans(DataOutputStream out, List<Client> clients, Compacted compacted)
+            throws IOException {
+        List<LoanRow> loans;
+        if (compacted != null) {
+            loans = compacted.loans;
+        } else {
+            loans = new ArrayList<>();
+            for (Client client : clients) {
+                for (LoanAgreement loan : client.getLoans()) {
+                    loans.add(new LoanRow(client.getClientId(), loan.getAmount(), loan.getInterestRate(),
+                            loan.getTermMonths(), loan.getStartDate().toEpochDay(), loan.isInsuranceRequired(),
+                            loan.getAgreementNumber(), loan.getPurpose()));
+                }
+            }
+        }
+        out.writeInt(loans.size());
+        for (LoanRow loan : loans) {
+            out.writeInt(loan.clientId());
+            out.writeLong(loan.amount());
+            out.writeDouble(loan.rate());
+            out.writeInt(loan.termMonths());
+            out.writeLong(loan.startEpochDay());
+            out.writeBoolean(loan.insuranceRequired());
+            writeString(out, loan.number());
+            writeString(out, loan.purpose());
+        }
+    }
+
+    private static void writeOperations(DataOutputStream out, Compacted compacted) throws IOException {
+        BankStatistics statistics = BankStatistics.getInstance();
+        out.writeInt(SnapshotImage.OPERATIONS.length);
+        for (Operation operation : SnapshotImage.OPERATIONS) {
+            int i = operation.ordinal();
+            out.writeLong(compacted != null ? compacted.operationCounts[i] : statistics.getCount(operation));
+            out.writeLong(compacted != null ? compacted.operationAmounts[i] : statistics.getAmount(operation));
+        }
+        out.writeLong(compacted != null ? compacted.bonuses : statistics.getBonuses());
+    }
+
+    private static void load(SnapshotImage image, AccountStore store) {
+        for (int i = 0; i < image.clientIds.length; i++) {
+            String[] fields = image.clientFields[i];
+            Client client = Client.restore(image.clientIds[i], fields[0], fields[1], fields[2], fields[3]);
+            store.restoreClient(client);
+            for (String descriptor : image.clientDevices[i]) {
+                Device device = DeviceDescriptors.create(descriptor);
+                if (device != null) {
+                    client.addDevice(device);
+                }
+            }
+        }
+        for (int i = 0; i < image.accountIds.length; i++) {
+            int id = image.accountIds[i];
+            store.restoreAccount(id, image.accountOwners[i], TYPES[image.accountTypes[i]], image.accountNames[i]);
+            store.addToBalance(id, image.balances[i]);
+            store.restoreAccrual(id, image.accrualDays[i], image.accrualCarries[i]);
+            Client owner = store.getClient(image.accountOwners[i]);
+            if (owner != null) {
+                owner.createAccount(store.account(id));
+            }
+        }
+        long lastAgreementId = -1;
+        for (int i = 0; i < image.loanClients.length; i++) {
+            lastAgreementId = Math.max(lastAgreementId, AgreementNumberGenerator.parseId(image.loanNumbers[i]));
+            new LoanAgreementBuilder()
+                    .setClient(store.getClient(image.loanClients[i]))
+                    .setAmount(image.loanAmounts[i])
+                    .setInterestRate(image.loanRates[i])
+                    .setTermMonths(image.loanTerms[i])
+                    .setStartDate(image.loanStartDates[i])
+                    .setInsuranceRequired(image.loanInsurance[i])
+                    .setAgreementNumber(image.loanNumbers[i])
+                    .setPurpose(image.loanPurposes[i])
+                    .build();
+        }
+        if (lastAgreementId >= 0) {
+            AgreementNumberGenerator.getInstance().resumeAfter(lastAgreementId);
+        }
+        BankStatistics statistics = BankStatistics.getInstance();
+        for (Operation operation : SnapshotImage.OPERATIONS) {
+            statistics.restoreOperation(operation, image.operationCounts[operation.ordinal()],
+                    image.operationAmounts[operation.ordinal()]);
+        }
+        statistics.restoreBonuses(image.bonuses);
+    }
+
+    /**
+     * Makes a rename in the directory durable. Platforms that cannot open a
+     * directory as a channel (e.g. Windows) already persist renames, so that
+     * case is skipped.
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Path latestSnapshot(Path directory) throws IOException {
+        List<Path> all = snapshots(directory);
+        return all.isEmpty() ? null : all.get(all.size() - 1);
+    }
+
+    private static List<Path> snapshots(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package persistence;
+
+import observer.Device;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped write-ahead journal of account mutations.
+ * <p>
+ * The journal is a sequence of segment files named after the journal position
+ * (LSN, a byte offset across all segments) of their first record. Each record is
+ * a 40-byte header, an optional text payload padded to 8 bytes and an 8-byte
+ * trailer holding a CRC32C of everything before it:
+ * <pre>
+ *  0 op           1 account type   2 payload length (short)
+ *  4 account id   8 counterparty  12 reserved
+ * 16 amount      24 bonus         32 timestamp millis
+ * 40 payload ... | crc32c | pad
+ * </pre>
+ * Appends are copied into the mapped segment under a short lock. Durability
+ * uses group commit: a writer that needs its record on disk either becomes the
+ * flush leader and forces everything appended so far in one call, or waits for
+ * the leader currently flushing. Concurrent writers therefore share fsyncs.
+ * <p>
+ * If forcing records to disk fails, the journal fails closed: the error is
+ * kept and every later append or durability wait throws, so no further
+ * mutation can be acknowledged on top of records that may not be on disk.
+ * <p>
+ * On open, the last segment is scanned up to the first record with a bad
+ * checksum, which marks the end of the log (e.g. a write torn by a crash).
+ */
+public final class TransactionJournal implements Closeable {
+    static final int HEADER_SIZE = 40;
+    static final int TRAILER_SIZE = 8;
+    static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final char FIELD_SEPARATOR = '\0';
+
+    private final Path directory;
+    private final long segmentSize;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    private final CRC32C checksum = new CRC32C();
+
+    private Segment current;
+    private volatile long written;
+    private volatile long durable;
+    private boolean flushing;
+    private volatile UncheckedIOException failure;
+
+    private static final class Segment {
+        final long baseLsn;
+        final MappedByteBuffer buffer;
+
+        Segment(long baseLsn, MappedByteBuffer buffer) {
+            this.baseLsn = baseLsn;
+            this.buffer = buffer;
+        }
+    }
+
+    private TransactionJournal(Path directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the journal in a directory, creating it if needed, and positions
+     * the writer after the last valid record.
+     */
+    public static TransactionJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public static TransactionJournal open(Path directory, long segmentSize) throws IOException {
+        if (segmentSize < HEADER_SIZE + TRAILER_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        TransactionJournal journal = new TransactionJournal(directory, segmentSize);
+        List<Long> bases = journal.segmentBases();
+        if (bases.isEmpty()) {
+            journal.current = journal.createSegment(0);
+        } else {
+            long base = bases.get(bases.size() - 1);
+            journal.current = new Segment(base, journal.map(base, FileChannel.MapMode.READ_WRITE));
+            long[] end = {base};
+            scanSegment(journal.current.buffer.duplicate(), base, new JournalRecord(), record -> end[0] = record.lsn);
+            journal.written = end[0];
+            journal.durable = end[0];
+        }
+        return journal;
+    }
+
+    /**
+     * Returns the position after the last appended record.
+     */
+    public long position() {
+        return written;
+    }
+
+    /**
+     * Returns the position up to which records are known to be on disk.
+     */
+    public long durablePosition() {
+        return durable;
+    }
+
+    /**
+     * Appends a record and waits until it is durable.
+     *
+     * @return the journal position after the record
+     * @throws UncheckedIOException if the journal cannot be written or forced
+     */
+    public long record(JournalOp op, int accountId, int counterpartyId, long amount, long bonus) {
+        long lsn = append(op, 0, accountId, counterpartyId, amount, bonus, null);
+        awaitDurable(lsn);
+        return lsn;
+    }
+
+    /**
+     * Appends an OPEN_CLIENT record and waits until it is durable.
+     */
+    public long recordClient(int clientId, String lastname, String firstname, String email, String phone) {
+        long lsn = append(JournalOp.OPEN_CLIENT, 0, clientId, 0, 0, 0,
+                encodeStrings(lastname, firstname, email, phone));
+        awaitDurable(lsn);
+        return lsn;
+    }
+
+    /**
+     * Appends an OPEN_ACCOUNT record and waits until it is durable.
+     *
+     * @param accrualDay epoch day interest starts accruing from, kept in the amount field
+     */
+    public long recordAccount(int accountId, int ownerId, int accountType, String name, int accrualDay) {
+        long lsn = append(JournalOp.OPEN_ACCOUNT, accountType, accountId, ownerId, accrualDay, 0,
+                encodeStrings(name));
+        awaitDurable(lsn);
+        return lsn;
+    }
+
+    /**
+     * Appends an OPEN_LOAN record and waits until it is durable.
+     *
+     * @param amount        principal in tiyn
+     * @param startEpochDay first day of the loan, kept in the bonus field
+     * @param purpose       may be null
+     */
+    public long recordLoan(int clientId, long amount, double interestRate, int termMonths, long startEpochDay,
+                           boolean insuranceRequired, String agreementNumber, String purpose) {
+        long lsn = append(JournalOp.OPEN_LOAN, insuranceRequired ? 1 : 0, clientId, termMonths, amount,
+                startEpochDay, encodeStrings(Double.toString(interestRate), agreementNumber,
+                        purpose == null ? "" : purpose));
+        awaitDurable(lsn);
+        return lsn;
+    }
+
+    /**
+     * Appends an ADD_DEVICE or REMOVE_DEVICE record and waits until it is durable.
+     * The device is stored as its descriptor, as in snapshots, together with
+     * its position in the client's device list so that one of several
+     * identical devices can be told apart on removal.
+     */
+    public long recordDevice(int clientId, Device device, int index, boolean added) {
+        long lsn = append(added ? JournalOp.ADD_DEVICE : JournalOp.REMOVE_DEVICE, 0, clientId, index, 0, 0,
+                encodeStrings(DeviceDescriptors.describe(device)));
+        awaitDurable(lsn);
+        return lsn;
+    }
+
+    /**
+     * Appends a record without waiting for it to reach disk.
+     * Pair with {@link #awaitDurable(long)} before acknowledging the operation.
+     *
+     * @return the journal position after the record
+     */
+    public long append(JournalOp op, int accountType, int accountId, int counterpartyId,
+                       long amount, long bonus, byte[] payload) {
+        int payloadLength = payload == null ? 0 : payload.length;
+        if (payloadLength > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal payload too large: " + payloadLength);
+        }
+        int length = recordLength(payloadLength);
+        long timestamp = System.currentTimeMillis();
+
+        appendLock.lock();
+        try {
+            checkNotFailed();
+            long offset = written - current.baseLsn;
+            if (offset + length > segmentSize) {
+                roll();
+                offset = 0;
+            }
+            ByteBuffer buffer = current.buffer;
+            int at = (int) offset;
+            buffer.put(at, op.code());
+            buffer.put(at + 1, (byte) accountType);
+            buffer.putShort(at + 2, (short) payloadLength);
+            buffer.putInt(at + 4, accountId);
+            buffer.putInt(at + 8, counterpartyId);
+            buffer.putInt(at + 12, 0);
+            buffer.putLong(at + 16, amount);
+            buffer.putLong(at + 24, bonus);
+            buffer.putLong(at + 32, timestamp);
+            if (payloadLength > 0) {
+                buffer.put(at + HEADER_SIZE, payload);
+            }
+            checksum.reset();
+            checksum.update(buffer.slice(at, length - TRAILER_SIZE));
+            buffer.putInt(at + length - TRAILER_SIZE, (int) checksum.getValue());
+            written += length;
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to journal in " + directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every record up to {@code lsn} is on disk.
+     * The first waiter forces all records appended so far; the others wait for
+     * that flush and usually find their record covered by it.
+     *
+     * @throws UncheckedIOException if the records cannot be forced, now or by an earlier flush
+     */
+    public void awaitDurable(long lsn) {
+        if (durable >= lsn) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            while (durable < lsn) {
+                checkNotFailed();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+                long target = durable;
+                flushLock.unlock();
+                try {
+                    target = flushToDisk();
+                } catch (UncheckedIOException e) {
+                    failure = e;
+                    throw e;
+                } finally {
+                    flushLock.lock();
+                    flushing = false;
+                    durable = Math.max(durable, target);
+                    flushed.signalAll();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Seals the current segment and starts a new one, so every record appended
+     * so far lives in an immutable file.
+     *
+     * @return the position where the new segment starts
+     */
+    public long seal() {
+        appendLock.lock();
+        try {
+            if (written > current.baseLsn) {
+                roll();
+            }
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot seal journal segment in " + directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes segment files whose records all end at or before {@code lsn},
+     * e.g. once a snapshot covers them. The current segment is never deleted.
+     */
+    public void deleteSegmentsBefore(long lsn) throws IOException {
+        List<Long> bases = segmentBases();
+        for (int i = 0; i + 1 < bases.size() && bases.get(i + 1) <= lsn; i++) {
+            Files.deleteIfExists(segmentPath(bases.get(i)));
+        }
+    }
+
+    /**
+     * Reads every record from {@code fromLsn} (inclusive) to the end of the log.
+     *
+     * @return the number of records visited
+     */
+    public long replay(long fromLsn, JournalVisitor visitor) throws IOException {
+        return replay(fromLsn, Long.MAX_VALUE, visitor);
+    }
+
+    /**
+     * Reads every record that starts at or after {@code fromLsn} and ends at or
+     * before {@code toLsn}.
+     *
+     * @return the number of records visited
+     */
+    public long replay(long fromLsn, long toLsn, JournalVisitor visitor) throws IOException {
+        long[] visited = {0};
+        JournalRecord record = new JournalRecord();
+        List<Long> bases = segmentBases();
+        for (int i = 0; i < bases.size(); i++) {
+            long base = bases.get(i);
+            long next = i + 1 < bases.size() ? bases.get(i + 1) : Long.MAX_VALUE;
+            if (next <= fromLsn) {
+                continue;
+            }
+            if (base >= toLsn) {
+                break;
+            }
+            ByteBuffer buffer = map(base, FileChannel.MapMode.READ_ONLY);
+            scanSegment(buffer, base, record, r -> {
+                if (r.lsn > fromLsn && r.lsn <= toLsn) {
+                    visitor.visit(r);
+                    visited[0]++;
+                }
+            });
+        }
+        return visited[0];
+    }
+
+    /**
+     * Reads every record of one segment, e.g. to scan segments in parallel.
+     * Works on sealed segments and on the one being written.
+     *
+     * @param baseLsn one of {@link #segmentBases()}
+     * @return the number of records visited
+     */
+    public long replaySegment(long baseLsn, JournalVisitor visitor) throws IOException {
+        return scanSegment(map(baseLsn, FileChannel.MapMode.READ_ONLY), baseLsn, new JournalRecord(), visitor);
+    }
+
+    /**
+     * Returns the base positions of all segment files, oldest first.
+     */
+    public List<Long> segmentBases() throws IOException {
+        List<Long> bases = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()), 16))
+                    .sorted()
+                    .forEach(bases::add);
+        }
+        return bases;
+    }
+
+    /**
+     * Returns the file holding the segment that starts at {@code baseLsn}.
+     */
+    public Path segmentPath(long baseLsn) {
+        return directory.resolve(String.format("%s%016x%s", SEGMENT_PREFIX, baseLsn, SEGMENT_SUFFIX));
+    }
+
+    @Override
+    public void close() {
+        awaitDurable(written);
+    }
+
+    /**
+     * Scans one mapped segment, stopping at the first missing or corrupt record.
+     *
+     * @return the number of valid records
+     */
+    static long scanSegment(ByteBuffer buffer, long baseLsn, JournalRecord record, JournalVisitor visitor) {
+        CRC32C crc = new CRC32C();
+        int limit = buffer.limit();
+        int at = 0;
+        long count = 0;
+        while (at + HEADER_SIZE + TRAILER_SIZE <= limit) {
+            JournalOp op = JournalOp.fromCode(buffer.get(at));
+            int payloadLength = buffer.getShort(at + 2);
+            if (op == null || payloadLength < 0) {
+                break;
+            }
+            int length = recordLength(payloadLength);
+            if (at + length > limit) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(at, length - TRAILER_SIZE));
+            if ((int) crc.getValue() != buffer.getInt(at + length - TRAILER_SIZE)) {
+                break;
+            }
+            record.op = op;
+            record.accountType = buffer.get(at + 1);
+            record.accountId = buffer.getInt(at + 4);
+            record.counterpartyId = buffer.getInt(at + 8);
+            record.amount = buffer.getLong(at + 16);
+            record.bonus = buffer.getLong(at + 24);
+            record.timestampMillis = buffer.getLong(at + 32);
+            if (record.payload.length < payloadLength) {
+                record.payload = new byte[payloadLength];
+            }
+            buffer.get(at + HEADER_SIZE, record.payload, 0, payloadLength);
+            record.payloadLength = payloadLength;
+            at += length;
+            record.lsn = baseLsn + at;
+            visitor.visit(record);
+            count++;
+        }
+        return count;
+    }
+
+    private void checkNotFailed() {
+        UncheckedIOException cause = failure;
+        if (cause != null) {
+            throw new UncheckedIOException("Journal in " + directory + " failed to force records",
+                    cause.getCause());
+        }
+    }
+
+    static int recordLength(int payloadLength) {
+        return HEADER_SIZE + ((payloadLength + 7) & ~7) + TRAILER_SIZE;
+    }
+
+    static byte[] encodeStrings(String... fields) {
+        return String.join(String.valueOf(FIELD_SEPARATOR), fields).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String[] decodeStrings(String joined) {
+        return joined.split(String.valueOf(FIELD_SEPARATOR), -1);
+    }
+
+    private long flushToDisk() {
+        Segment segment;
+        long target;
+        appendLock.lock();
+        try {
+            segment = current;
+            target = written;
+        } finally {
+            appendLock.unlock();
+        }
+        long from = Math.max(durable, segment.baseLsn);
+        if (target > from) {
+            segment.buffer.force((int) (from - segment.baseLsn), (int) (target - from));
+        }
+        return target;
+    }
+
+    /**
+     * Seals the current segment and starts a new one at the current position.
+     * Called with the append lock held; the sealed segment is forced in full so
+     * the flush leader only ever has to force the current segment.
+     */
+    private void roll() throws IOException {
+        try {
+            current.buffer.force();
+        } catch (UncheckedIOException e) {
+            failure = e;
+            throw e;
+        }
+        current = createSegment(written);
+    }
+
+    private Segment createSegment(long baseLsn) throws IOException {
+        return new Segment(baseLsn, map(baseLsn, FileChannel.MapMode.READ_WRITE));
+    }
+
+    private MappedByteBuffer map(long baseLsn, FileChannel.MapMode mode) throws IOException {
+        Path path = segmentPath(baseLsn);
+        if (mode == FileChannel.MapMode.READ_ONLY) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(mode, 0, channel.size());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, segmentSize);
+        }
+    }
+}
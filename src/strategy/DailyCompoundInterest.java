@@ -0,0 +1,140 @@
+package strategy;
+
+import model.Money;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Annual rate compounded daily under a {@link DayCount} convention.
+ * <p>
+ * Growth over {@code d} days is {@code (1 + rate / yearLength)^d}. It is looked
+ * up in two cached tables of 1024 entries each, for the low and high ten bits
+ * of {@code d}, and the two factors are multiplied; the tables store growth
+ * minus one so small gaps keep full precision. Catching up any gap of up to
+ * 2^20 days (about 2,870 years) therefore costs two lookups, whatever its length.
+ * Under {@link DayCount#ACT_ACT} the rate changes at year ends; the partial
+ * first and last years are looked up and the full years between are counted
+ * as leap and common years, so that case is constant time too.
+ */
+public class DailyCompoundInterest implements TimeAwareInterestStrategy {
+    private static final int TABLE_BITS = 10;
+    private static final int TABLE_SIZE = 1 << TABLE_BITS;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+    private static final long MAX_TABLE_DAYS = (long) TABLE_SIZE * TABLE_SIZE;
+    private static final int COMMON_YEAR = 2001;
+    private static final int LEAP_YEAR = 2000;
+
+    private final long rateBasisPoints;
+    private final DayCount dayCount;
+    private final GrowthTable[] tables = new GrowthTable[367];
+
+    /**
+     * Growth minus one for every day count below 2^20, in two levels.
+     */
+    private static final class GrowthTable {
+        final double[] low = new double[TABLE_SIZE];
+        final double[] high = new double[TABLE_SIZE];
+        final double logGrowth;
+
+        GrowthTable(double dailyRate) {
+            logGrowth = Math.log1p(dailyRate);
+            for (int i = 0; i < TABLE_SIZE; i++) {
+                low[i] = Math.expm1(i * logGrowth);
+                high[i] = Math.expm1((double) i * TABLE_SIZE * logGrowth);
+            }
+        }
+
+        double growthMinusOne(long days) {
+            double total = 0;
+            while (days >= MAX_TABLE_DAYS) {
+                total = compose(total, compose(low[TABLE_MASK], high[TABLE_MASK]));
+                days -= MAX_TABLE_DAYS - 1;
+            }
+            return compose(total, compose(low[(int) days & TABLE_MASK], high[(int) (days >>> TABLE_BITS)]));
+        }
+    }
+
+    /**
+     * @param rateBasisPoints annual rate, e.g. 300 for 3%
+     */
+    public DailyCompoundInterest(long rateBasisPoints, DayCount dayCount) {
+        this.rateBasisPoints = rateBasisPoints;
+        this.dayCount = dayCount;
+        // a common and a leap year cover every year length the convention uses
+        for (int year : new int[]{COMMON_YEAR, LEAP_YEAR}) {
+            int yearLength = dayCount.yearLength(year);
+            if (tables[yearLength] == null) {
+                tables[yearLength] = new GrowthTable(rateBasisPoints / 10_000.0 / yearLength);
+            }
+        }
+    }
+
+    public long getRateBasisPoints() {
+        return rateBasisPoints;
+    }
+
+    public DayCount getDayCount() {
+        return dayCount;
+    }
+
+    @Override
+    public long interestBetween(long balance, long fromEpochDay, long toEpochDay) {
+        return Money.round(exactInterestBetween(balance, fromEpochDay, toEpochDay), RoundingMode.HALF_EVEN);
+    }
+
+    @Override
+    public double exactInterestBetween(long balance, long fromEpochDay, long toEpochDay) {
+        if (toEpochDay <= fromEpochDay || balance == 0) {
+            return 0;
+        }
+        double growth = dayCount != DayCount.ACT_ACT
+                ? tables[dayCount.yearLength(COMMON_YEAR)].growthMinusOne(toEpochDay - fromEpochDay)
+                : actualActualGrowth(fromEpochDay, toEpochDay);
+        return balance * growth;
+    }
+
+    /**
+     * Growth minus one when the daily rate changes at year ends: the partial
+     * first and last years from the tables, every full year between in one
+     * step from the number of leap and common years.
+     */
+    private double actualActualGrowth(long fromEpochDay, long toEpochDay) {
+        int firstYear = LocalDate.ofEpochDay(fromEpochDay).getYear();
+        int lastYear = LocalDate.ofEpochDay(toEpochDay - 1).getYear();
+        if (firstYear == lastYear) {
+            return tables[dayCount.yearLength(firstYear)].growthMinusOne(toEpochDay - fromEpochDay);
+        }
+        long firstYearEnd = LocalDate.of(firstYear + 1, 1, 1).toEpochDay();
+        long lastYearStart = LocalDate.of(lastYear, 1, 1).toEpochDay();
+        double growth = compose(
+                tables[dayCount.yearLength(firstYear)].growthMinusOne(firstYearEnd - fromEpochDay),
+                tables[dayCount.yearLength(lastYear)].growthMinusOne(toEpochDay - lastYearStart));
+        long leapYears = leapYearsBefore(lastYear) - leapYearsBefore(firstYear + 1);
+        long commonYears = lastYear - firstYear - 1 - leapYears;
+        if (leapYears + commonYears > 0) {
+            int leapLength = dayCount.yearLength(LEAP_YEAR);
+            int commonLength = dayCount.yearLength(COMMON_YEAR);
+            double logGrowth = leapYears * leapLength * tables[leapLength].logGrowth
+                    + commonYears * commonLength * tables[commonLength].logGrowth;
+            growth = compose(growth, Math.expm1(logGrowth));
+        }
+        return growth;
+    }
+
+    /**
+     * @return the number of leap years before {@code year} in the proleptic
+     *         Gregorian calendar, counted from an arbitrary fixed origin
+     */
+    private static long leapYearsBefore(int year) {
+        long y = year - 1L;
+        return Math.floorDiv(y, 4) - Math.floorDiv(y, 100) + Math.floorDiv(y, 400);
+    }
+
+    /**
+     * Combines two growths given as growth minus one: (1 + a)(1 + b) - 1.
+     */
+    private static double compose(double a, double b) {
+        return a + b + a * b;
+    }
+}
@@ -0,0 +1,27 @@
+package strategy;
+
+import java.time.Year;
+
+/**
+ * Day-count conventions for turning an annual rate into a daily one.
+ * All of them count actual calendar days; they differ in the year length.
+ */
+public enum DayCount {
+    /** Actual days over a fixed 365-day year. */
+    ACT_365_FIXED,
+    /** Actual days over a 360-day year (money-market convention). */
+    ACT_360,
+    /** Actual days over the actual length of each calendar year, 365 or 366. */
+    ACT_ACT;
+
+    /**
+     * @return the number of days the annual rate is divided by in the given year
+     */
+    public int yearLength(int year) {
+        return switch (this) {
+            case ACT_365_FIXED -> 365;
+            case ACT_360 -> 360;
+            case ACT_ACT -> Year.isLeap(year) ? 366 : 365;
+        };
+    }
+}
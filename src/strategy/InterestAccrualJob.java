@@ -0,0 +1,213 @@
+package strategy;
+
+import model.AccountStore;
+import model.AccountType;
+import model.Money;
+import persistence.TransactionJournal;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * End-of-day job that credits interest to every account in the bank.
+ * <p>
+ * The store's pages are split recursively across a fork/join pool; each leaf
+ * task accrues one page of 64K accounts straight in the balance column with
+ * the strategy for each row's account type. Each credit is appended to the
+ * journal as an INTEREST record as it is applied, and a page's records are
+ * made durable with a single group commit. Bonuses are refreshed in one bulk
+ * pass at the end.
+ * <p>
+ * Each run credits one accrual period, as defined by the strategies, for a run
+ * date. A credited account is marked as credited through the day after that
+ * date, in the same step as the credit, so running the same date again, e.g.
+ * after a crash, only credits the accounts the first run had not reached.
+ * Account types that accrue daily through
+ * {@link AccountStore#setDailyInterest} are left to that path and skipped,
+ * whatever strategy the job has for them. Devices are not notified per account.
+ */
+public class InterestAccrualJob {
+    private static final AccountType[] TYPES = AccountType.values();
+
+    private final AccountStore store = AccountStore.getInstance();
+    private final InterestStrategy[] strategyByType = new InterestStrategy[TYPES.length];
+    private final ForkJoinPool pool;
+
+    /**
+     * Receives progress after every completed page, from worker threads.
+     */
+    @FunctionalInterface
+    public interface Progress {
+        void update(int pagesDone, int pagesTotal, long accountsCredited);
+    }
+
+    /**
+     * Totals of one run. Amounts are in tiyn.
+     */
+    public static final class Summary {
+        private final long accountsCredited;
+        private final long totalInterest;
+        private final long elapsedNanos;
+
+        Summary(long accountsCredited, long totalInterest, long elapsedNanos) {
+            this.accountsCredited = accountsCredited;
+            this.totalInterest = totalInterest;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getAccountsCredited() {
+            return accountsCredited;
+        }
+
+        public long getTotalInterest() {
+            return totalInterest;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Credited %,d accounts with %s ₸ in %.1f ms",
+                    accountsCredited, Money.format(totalInterest), elapsedNanos / 1e6);
+        }
+    }
+
+    /**
+     * Uses the rates of the shared {@link RateTables}, by account type.
+     */
+    public InterestAccrualJob() {
+        this(defaultStrategies(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param strategies strategy per account type; types without one earn nothing
+     */
+    public InterestAccrualJob(Map<AccountType, InterestStrategy> strategies, ForkJoinPool pool) {
+        for (AccountType type : TYPES) {
+            strategyByType[type.ordinal()] = strategies.get(type);
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * One {@link RateTableStrategy} per account type, with the type name as the product.
+     */
+    public static Map<AccountType, InterestStrategy> defaultStrategies() {
+        Map<AccountType, InterestStrategy> strategies = new EnumMap<>(AccountType.class);
+        for (AccountType type : TYPES) {
+            strategies.put(type, new RateTableStrategy(RateTables.getInstance(), type.name()));
+        }
+        return strategies;
+    }
+
+    public Summary run() {
+        return run((done, total, credited) -> {
+        });
+    }
+
+    /**
+     * Credits the period of today's date, by the store's clock.
+     */
+    public Summary run(Progress progress) {
+        return run(LocalDate.now(store.getClock()), progress);
+    }
+
+    /**
+     * Credits one period for a run date. Every strategy is
+     * {@linkplain InterestStrategy#snapshot() fixed} first, so rates reloaded
+     * during the run apply from the next run on. Accounts already credited
+     * for this date are skipped.
+     */
+    public Summary run(LocalDate runDate, Progress progress) {
+        int throughDay = Math.toIntExact(runDate.toEpochDay() + 1);
+        long begin = System.nanoTime();
+        LongUnaryOperator[] interestByType = new LongUnaryOperator[TYPES.length];
+        for (int type = 0; type < TYPES.length; type++) {
+            InterestStrategy strategy = strategyByType[type];
+            interestByType[type] = strategy != null ? strategy.snapshot()::calculateInterest : balance -> 0;
+        }
+        int pages = store.pageCount();
+        LongAdder credited = new LongAdder();
+        LongAdder interest = new LongAdder();
+        LongAdder pagesDone = new LongAdder();
+        pool.invoke(new PageRange(0, pages, pages, throughDay, interestByType, credited, interest, pagesDone,
+                progress));
+        store.recomputeBonuses();
+        return new Summary(credited.sum(), interest.sum(), System.nanoTime() - begin);
+    }
+
+    /**
+     * Fork/join task over a range of pages. Tasks are never serialized; the
+     * id only satisfies {@code Serializable} from {@link RecursiveAction}.
+     */
+    private final class PageRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int total;
+        private final int throughDay;
+        private final transient LongUnaryOperator[] interestByType;
+        private final LongAdder credited;
+        private final LongAdder interest;
+        private final LongAdder pagesDone;
+        private final transient Progress progress;
+
+        PageRange(int from, int to, int total, int throughDay, LongUnaryOperator[] interestByType,
+                  LongAdder credited, LongAdder interest, LongAdder pagesDone, Progress progress) {
+            this.from = from;
+            this.to = to;
+            this.total = total;
+            this.throughDay = throughDay;
+            this.interestByType = interestByType;
+            this.credited = credited;
+            this.interest = interest;
+            this.pagesDone = pagesDone;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            if (from >= to) {
+                return;
+            }
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PageRange(from, mid, total, throughDay, interestByType, credited, interest,
+                                pagesDone, progress),
+                        new PageRange(mid, to, total, throughDay, interestByType, credited, interest,
+                                pagesDone, progress));
+                return;
+            }
+            int[] ids = new int[AccountStore.PAGE_SIZE];
+            long[] amounts = new long[AccountStore.PAGE_SIZE];
+            int count = store.accruePage(from, throughDay, interestByType, ids, amounts);
+            awaitDurable(count);
+            long sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += amounts[i];
+            }
+            credited.add(count);
+            interest.add(sum);
+            pagesDone.increment();
+            progress.update(pagesDone.intValue(), total, credited.sum());
+        }
+    }
+
+    /**
+     * Waits once for the INTEREST records a page appended.
+     */
+    private void awaitDurable(int credited) {
+        TransactionJournal journal = store.getJournal();
+        if (journal != null && credited > 0) {
+            journal.awaitDurable(journal.position());
+        }
+    }
+}
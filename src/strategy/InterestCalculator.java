@@ -13,10 +13,21 @@ public class InterestCalculator {
         this.strategy = strategy;
     }
 
-    public double execute(Account account) {
+    public long execute(Account account) {
         if (strategy == null) {
             throw new IllegalStateException("Interest strategy is not set!");
         }
         return strategy.calculateInterest(account);
     }
+
+    /**
+     * Bulk form of {@link #execute(Account)} for balances of accounts that all
+     * use the selected strategy.
+     */
+    public void execute(long[] balances, long[] out, int length) {
+        if (strategy == null) {
+            throw new IllegalStateException("Interest strategy is not set!");
+        }
+        strategy.calculateInterest(balances, out, length);
+    }
 }
@@ -0,0 +1,40 @@
+package strategy;
+
+/**
+ * Bulk interest computation over primitive balance arrays:
+ * {@code out[i] = balances[i] * rate / 10000}, rounded HALF_EVEN, in tiyn.
+ * <p>
+ * {@link #best()} returns the SIMD implementation built on the incubating
+ * Vector API when the JVM runs with {@code --add-modules jdk.incubator.vector},
+ * and the scalar one otherwise. Both give identical results. The SIMD kernel
+ * lives in the separate {@code src-vector} source root, which is the only
+ * part of the tree that needs that flag to compile.
+ */
+public interface InterestKernel {
+
+    /**
+     * Applies one rate in basis points to every balance.
+     *
+     * @throws ArithmeticException if a product overflows
+     */
+    void interest(long[] balances, long rateBasisPoints, long[] out, int length);
+
+    /**
+     * Applies a per-account rate in basis points, e.g. looked up by account type,
+     * so accounts of different strategies are computed in one pass.
+     *
+     * @throws ArithmeticException if a product overflows
+     */
+    void interest(long[] balances, long[] ratesBasisPoints, long[] out, int length);
+
+    /**
+     * @return the vector kernel if the Vector API is available, else the scalar kernel
+     */
+    static InterestKernel best() {
+        return InterestKernels.BEST;
+    }
+
+    static InterestKernel scalar() {
+        return InterestKernels.SCALAR;
+    }
+}
@@ -0,0 +1,23 @@
+package strategy;
+
+/**
+ * Holds the shared {@link InterestKernel} instances. Loads the vector kernel
+ * reflectively, so the interface works on JVMs without the incubator module
+ * and in builds without the {@code src-vector} source root.
+ */
+final class InterestKernels {
+    static final InterestKernel SCALAR = new ScalarInterestKernel();
+    static final InterestKernel BEST = load();
+
+    private InterestKernels() {
+    }
+
+    private static InterestKernel load() {
+        try {
+            return (InterestKernel) Class.forName("strategy.VectorInterestKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
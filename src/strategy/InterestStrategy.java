@@ -7,5 +7,35 @@ import model.Account;
  * Defines interchangeable algorithms for different account types.
  */
 public interface InterestStrategy {
-    double calculateInterest(Account account);
+    /**
+     * @param balance balance in tiyn
+     * @return interest on that balance in tiyn
+     */
+    long calculateInterest(long balance);
+
+    /**
+     * @return interest for the account in tiyn
+     */
+    default long calculateInterest(Account account) {
+        return calculateInterest(account.getBalance());
+    }
+
+    /**
+     * Computes interest for a whole array of balances of accounts using this
+     * strategy: {@code out[i] = calculateInterest(balances[i])}.
+     */
+    default void calculateInterest(long[] balances, long[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            out[i] = calculateInterest(balances[i]);
+        }
+    }
+
+    /**
+     * Returns a strategy whose rates stay fixed from now on, for runs that
+     * must apply one set of rates to every account. Strategies whose rates
+     * never change return themselves.
+     */
+    default InterestStrategy snapshot() {
+        return this;
+    }
 }
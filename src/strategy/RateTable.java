@@ -0,0 +1,141 @@
+package strategy;
+
+import model.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable table of balance-tiered annual interest rates per product.
+ * <p>
+ * Each product has a sorted array of tier floors (balances in tiyn) and a
+ * parallel array of rates in basis points. A balance earns the rate of the
+ * highest floor it reaches, found by binary search; balances below the
+ * lowest floor earn nothing.
+ * <p>
+ * Text format, one tier per line, {@code #} starts a comment:
+ * <pre>
+ * # product, from balance (tenge), annual rate (%)
+ * SAVINGS, 0, 3
+ * SAVINGS, 1000000, 3.5
+ * DEPOSIT, 0, 5
+ * </pre>
+ * Products are account type names or any other product code.
+ */
+public final class RateTable {
+    private final Map<String, Tiers> products;
+
+    /**
+     * Tiers of one product.
+     */
+    private static final class Tiers {
+        final long[] floors;
+        final long[] rates;
+
+        Tiers(long[] floors, long[] rates) {
+            this.floors = floors;
+            this.rates = rates;
+        }
+
+        long rate(long balance) {
+            int index = Arrays.binarySearch(floors, balance);
+            int tier = index >= 0 ? index : -index - 2;
+            return tier >= 0 ? rates[tier] : 0;
+        }
+    }
+
+    private RateTable(Map<String, Tiers> products) {
+        this.products = products;
+    }
+
+    /**
+     * The rates that used to be hard-coded: savings 3%, deposit 5%, credit 7%.
+     */
+    public static RateTable defaults() {
+        return parse("SAVINGS, 0, 3\nDEPOSIT, 0, 5\nCREDIT, 0, 7\n", "defaults");
+    }
+
+    /**
+     * Parses a table in the text format above.
+     *
+     * @param sourceName used in error messages
+     * @throws IllegalArgumentException if a line is malformed or a product repeats a floor
+     */
+    public static RateTable parse(String text, String sourceName) {
+        Map<String, List<long[]>> rows = new HashMap<>();
+        try (BufferedReader in = new BufferedReader(new StringReader(text))) {
+            String line;
+            int number = 0;
+            while ((line = in.readLine()) != null) {
+                number++;
+                int comment = line.indexOf('#');
+                String content = (comment >= 0 ? line.substring(0, comment) : line).strip();
+                if (content.isEmpty()) {
+                    continue;
+                }
+                String[] fields = content.split(",");
+                if (fields.length != 3 || fields[0].isBlank()) {
+                    throw malformed(sourceName, number, "expected product, from balance, rate");
+                }
+                try {
+                    long floor = Money.parse(fields[1].strip());
+                    long rate = Money.parse(fields[2].strip()); // percent with two decimals is basis points
+                    rows.computeIfAbsent(fields[0].strip(), product -> new ArrayList<>()).add(new long[]{floor, rate});
+                } catch (NumberFormatException e) {
+                    throw malformed(sourceName, number, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // a StringReader does not throw
+        }
+
+        Map<String, Tiers> products = new HashMap<>();
+        rows.forEach((product, tiers) -> {
+            tiers.sort((a, b) -> Long.compare(a[0], b[0]));
+            long[] floors = new long[tiers.size()];
+            long[] rates = new long[tiers.size()];
+            for (int i = 0; i < floors.length; i++) {
+                floors[i] = tiers.get(i)[0];
+                rates[i] = tiers.get(i)[1];
+                if (i > 0 && floors[i] == floors[i - 1]) {
+                    throw new IllegalArgumentException(sourceName + ": product " + product
+                            + " repeats tier " + Money.format(floors[i]));
+                }
+            }
+            products.put(product, new Tiers(floors, rates));
+        });
+        return new RateTable(products);
+    }
+
+    private static IllegalArgumentException malformed(String sourceName, int line, String reason) {
+        return new IllegalArgumentException(sourceName + ":" + line + ": " + reason);
+    }
+
+    public boolean hasProduct(String product) {
+        return products.containsKey(product);
+    }
+
+    /**
+     * @return the annual rate in basis points for a balance, 0 for unknown products
+     */
+    public long rate(String product, long balance) {
+        Tiers tiers = products.get(product);
+        return tiers != null ? tiers.rate(balance) : 0;
+    }
+
+    /**
+     * Bulk form of {@link #rate}: looks the product up once.
+     */
+    public void rates(String product, long[] balances, long[] out, int length) {
+        Tiers tiers = products.get(product);
+        for (int i = 0; i < length; i++) {
+            out[i] = tiers != null ? tiers.rate(balances[i]) : 0;
+        }
+    }
+}
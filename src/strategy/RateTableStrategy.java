@@ -0,0 +1,70 @@
+package strategy;
+
+import model.Money;
+
+import java.math.RoundingMode;
+
+/**
+ * Strategy that takes the rate for a product from the current {@link RateTable},
+ * tiered by balance. Rate changes apply as soon as the table is reloaded.
+ */
+public class RateTableStrategy implements InterestStrategy {
+    private final RateTables tables;
+    private final String product;
+
+    /**
+     * @param product product code in the table, e.g. an account type name;
+     *                reloads that drop it are rejected
+     */
+    public RateTableStrategy(RateTables tables, String product) {
+        this.tables = tables;
+        this.product = product;
+        tables.use(product);
+    }
+
+    public String getProduct() {
+        return product;
+    }
+
+    @Override
+    public long calculateInterest(long balance) {
+        return calculateInterest(tables.current(), balance);
+    }
+
+    /**
+     * Uses one table for the whole array even if a reload happens meanwhile.
+     */
+    @Override
+    public void calculateInterest(long[] balances, long[] out, int length) {
+        calculateInterest(tables.current(), balances, out, length);
+    }
+
+    /**
+     * Fixes the table current now, so a long run uses one set of rates throughout.
+     */
+    @Override
+    public InterestStrategy snapshot() {
+        RateTable table = tables.current();
+        return new InterestStrategy() {
+            @Override
+            public long calculateInterest(long balance) {
+                return RateTableStrategy.this.calculateInterest(table, balance);
+            }
+
+            @Override
+            public void calculateInterest(long[] balances, long[] out, int length) {
+                RateTableStrategy.this.calculateInterest(table, balances, out, length);
+            }
+        };
+    }
+
+    private long calculateInterest(RateTable table, long balance) {
+        return Money.applyBasisPoints(balance, table.rate(product, balance), RoundingMode.HALF_EVEN);
+    }
+
+    private void calculateInterest(RateTable table, long[] balances, long[] out, int length) {
+        long[] rates = new long[length];
+        table.rates(product, balances, rates, length);
+        InterestKernel.best().interest(balances, rates, out, length);
+    }
+}
@@ -0,0 +1,176 @@
+package strategy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * The current {@link RateTable}, loaded from a config file and reloadable
+ * without a restart.
+ * <p>
+ * A reload parses the whole file into a new immutable table and publishes it
+ * with a single volatile write, so readers see either the old table or the
+ * new one, never a mix. A file that fails to parse leaves the current table
+ * in place, and so does a file that lacks a product a strategy
+ * {@linkplain #use uses}: a file caught half-written can still parse cleanly,
+ * and its missing products would otherwise earn nothing. Writers should still
+ * save to a temporary file and rename it over the old one.
+ * <p>
+ * The watcher notices a change by modification time and size. A file loaded
+ * within {@value #MTIME_GRANULARITY_MILLIS} ms of its modification time could
+ * be saved again within the same time stamp, so it is also compared by
+ * checksum until that window has passed.
+ * <p>
+ * The shared instance reads the file named by the {@code banking.rates.file}
+ * system property (default {@code rates.csv}) and uses
+ * {@link RateTable#defaults()} while that file does not exist.
+ */
+public final class RateTables implements Closeable {
+    private static final RateTables instance = new RateTables(
+            Path.of(System.getProperty("banking.rates.file", "rates.csv")));
+
+    private static final long MTIME_GRANULARITY_MILLIS = 2_000; // coarsest common file system tick
+
+    private final Path file;
+    private final Set<String> productsInUse = ConcurrentHashMap.newKeySet();
+    private volatile RateTable current;
+    private FileTime loadedModified;
+    private long loadedSize;
+    private long loadedChecksum;
+    private boolean racy;
+    private ScheduledExecutorService watcher;
+
+    /**
+     * Loads the file now, if it exists.
+     *
+     * @throws UncheckedIOException     if the file exists but cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public RateTables(Path file) {
+        this.file = file;
+        this.current = RateTable.defaults();
+        try {
+            reload();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static RateTables getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return the table to use now; hold on to it for a consistent view
+     */
+    public RateTable current() {
+        return current;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Marks a product as in use, so a reloaded table without it is rejected.
+     */
+    public void use(String product) {
+        productsInUse.add(product);
+    }
+
+    /**
+     * Reads the file again and swaps the new table in. Does nothing if the
+     * file does not exist.
+     *
+     * @return true if a table was loaded
+     * @throws IllegalArgumentException if the file is malformed or lacks a product
+     *                                  in use; the current table is kept
+     */
+    public synchronized boolean reload() throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        long loadedAt = System.currentTimeMillis();
+        FileTime modified = Files.getLastModifiedTime(file);
+        byte[] content = Files.readAllBytes(file);
+        loadedModified = modified;
+        loadedSize = content.length;
+        loadedChecksum = checksum(content);
+        racy = loadedAt - modified.toMillis() < MTIME_GRANULARITY_MILLIS;
+        RateTable table = RateTable.parse(new String(content, StandardCharsets.UTF_8), file.toString());
+        for (String product : productsInUse) {
+            if (!table.hasProduct(product)) {
+                throw new IllegalArgumentException(file + ": product " + product + " is in use but missing");
+            }
+        }
+        current = table;
+        return true;
+    }
+
+    /**
+     * Checks the file every {@code period} on a background daemon thread and
+     * reloads it when it changes. Failures are reported and retried at the
+     * next change.
+     */
+    public synchronized void startWatching(long period, TimeUnit unit) {
+        if (watcher != null) {
+            throw new IllegalStateException("Rate file is already watched");
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "rate-table-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadIfModified, period, period, unit);
+    }
+
+    /**
+     * Stops watching the file.
+     */
+    @Override
+    public synchronized void close() {
+        if (watcher != null) {
+            watcher.shutdown();
+            watcher = null;
+        }
+    }
+
+    private synchronized void reloadIfModified() {
+        try {
+            if (Files.exists(file) && changed()) {
+                reload();
+            }
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            // reload() recorded the broken file, so it is not retried every period
+            System.err.println("Rate table reload failed: " + e.getMessage());
+        }
+    }
+
+    private boolean changed() throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        if (!modified.equals(loadedModified) || Files.size(file) != loadedSize) {
+            return true;
+        }
+        if (!racy) {
+            return false;
+        }
+        racy = System.currentTimeMillis() - modified.toMillis() < MTIME_GRANULARITY_MILLIS;
+        return checksum(Files.readAllBytes(file)) != loadedChecksum;
+    }
+
+    private static long checksum(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+}
@@ -1,14 +1,23 @@
 package strategy;
 
-import model.Account;
+import model.Money;
+
+import java.math.RoundingMode;
 
 /**
  * Concrete Strategy for savings accounts.
  * Provides a 3% annual interest rate.
  */
 public class SavingsInterest implements InterestStrategy {
+    private static final long RATE_BASIS_POINTS = 300; // 3% annual
+
+    @Override
+    public long calculateInterest(long balance) {
+        return Money.applyBasisPoints(balance, RATE_BASIS_POINTS, RoundingMode.HALF_EVEN);
+    }
+
     @Override
-    public double calculateInterest(Account account) {
-        return account.getBalance() * 0.03; // 3% annual
+    public void calculateInterest(long[] balances, long[] out, int length) {
+        InterestKernel.best().interest(balances, RATE_BASIS_POINTS, out, length);
     }
 }
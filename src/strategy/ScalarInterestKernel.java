@@ -0,0 +1,25 @@
+package strategy;
+
+import model.Money;
+
+import java.math.RoundingMode;
+
+/**
+ * Plain loop implementation of {@link InterestKernel}.
+ */
+final class ScalarInterestKernel implements InterestKernel {
+
+    @Override
+    public void interest(long[] balances, long rateBasisPoints, long[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            out[i] = Money.applyBasisPoints(balances[i], rateBasisPoints, RoundingMode.HALF_EVEN);
+        }
+    }
+
+    @Override
+    public void interest(long[] balances, long[] ratesBasisPoints, long[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            out[i] = Money.applyBasisPoints(balances[i], ratesBasisPoints[i], RoundingMode.HALF_EVEN);
+        }
+    }
+}
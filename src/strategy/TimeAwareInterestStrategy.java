@@ -0,0 +1,29 @@
+package strategy;
+
+/**
+ * Strategy for interest that accrues with time rather than per explicit run.
+ * <p>
+ * Implementations must be pure functions of their arguments, so that crediting
+ * a gap in one call or in several shorter calls gives the same result up to
+ * rounding to whole tiyn.
+ */
+public interface TimeAwareInterestStrategy {
+    /**
+     * Returns the interest earned by a balance held unchanged over the days
+     * {@code [fromEpochDay, toEpochDay)}.
+     *
+     * @param balance balance in tiyn
+     * @return interest in tiyn, 0 if {@code toEpochDay <= fromEpochDay}
+     * @throws ArithmeticException if the result overflows
+     */
+    long interestBetween(long balance, long fromEpochDay, long toEpochDay);
+
+    /**
+     * Returns the same interest before rounding to whole tiyn, so a caller can
+     * carry the fraction into the next accrual instead of losing it.
+     * Defaults to the rounded amount.
+     */
+    default double exactInterestBetween(long balance, long fromEpochDay, long toEpochDay) {
+        return interestBetween(balance, fromEpochDay, toEpochDay);
+    }
+}
@@ -1,14 +1,23 @@
 package strategy;
 
-import model.Account;
+import model.Money;
+
+import java.math.RoundingMode;
 
 /**
  * Concrete Strategy for VIP clients.
  * Applies a reduced 5% interest rate.
  */
 public class VIPInterest implements InterestStrategy {
+    private static final long RATE_BASIS_POINTS = 500; // 5% annual
+
+    @Override
+    public long calculateInterest(long balance) {
+        return Money.applyBasisPoints(balance, RATE_BASIS_POINTS, RoundingMode.HALF_EVEN);
+    }
+
     @Override
-    public double calculateInterest(Account account) {
-        return account.getBalance() * 0.05; // 5% annual
+    public void calculateInterest(long[] balances, long[] out, int length) {
+        InterestKernel.best().interest(balances, RATE_BASIS_POINTS, out, length);
     }
 }